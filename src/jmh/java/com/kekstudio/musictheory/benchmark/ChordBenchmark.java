@@ -0,0 +1,60 @@
+package com.kekstudio.musictheory.benchmark;
+
+import com.kekstudio.musictheory.Chord;
+import com.kekstudio.musictheory.Note;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of Note.chord for every entry of Music.Chords, Chord.setPosition and Chord.toString.
+ * @author Andy671
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChordBenchmark {
+
+    @Param({"m", "maj", "dim", "aug", "sus", "sus2", "m2", "maj2", "m6", "maj6",
+            "7", "m7", "maj7", "7sus", "dim7", "m7b5", "mmaj7", "aug7", "maj7b5", "maj7#5"})
+    public String chordType;
+
+    private Note root;
+    private Chord chord;
+    private int position;
+
+    @Setup
+    public void setUp(){
+        root = new Note("Bb");
+        chord = root.chord(chordType);
+    }
+
+    @Benchmark
+    public Chord chord(){
+        return root.chord(chordType);
+    }
+
+    @Benchmark
+    public Chord setPosition(){
+        position = (position + 1) % chord.getNotes().length;
+        chord.setPosition(position);
+        return chord;
+    }
+
+    @Benchmark
+    public String chordToString(){
+        return chord.toString();
+    }
+}
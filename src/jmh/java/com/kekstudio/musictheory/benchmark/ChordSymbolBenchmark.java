@@ -0,0 +1,54 @@
+package com.kekstudio.musictheory.benchmark;
+
+import com.kekstudio.musictheory.Chord;
+import com.kekstudio.musictheory.ChordSymbol;
+import com.kekstudio.musictheory.ParseResult;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of ChordSymbol parsing, for registered types, extended chords, slash chords and invalid symbols.
+ * @author Andy671
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChordSymbolBenchmark {
+
+    @Param({"C", "Am7", "C-7", "F#m7b5/C", "Bbmaj7#11", "C7(b9,#11)", "C6/9", "Ebmaj7/Bb"})
+    public String symbol;
+
+    private static final String[] LEAD_SHEET = {
+        "Dm7", "G7", "Cmaj7", "A7b9", "Dm7", "G7sus4", "C6/9", "F#m7b5", "B7#9", "Em7", "A7", "D9", "Db7#11", "Cmaj7/E"
+    };
+
+    private int index;
+
+    @Benchmark
+    public Chord parse(){
+        return ChordSymbol.parse(symbol);
+    }
+
+    @Benchmark
+    public ParseResult<Chord> tryParseInvalid(){
+        return ChordSymbol.tryParse("Cmaj7xyz", 4);
+    }
+
+    @Benchmark
+    public Chord parseLeadSheet(){
+        index = (index + 1) % LEAD_SHEET.length;
+        return ChordSymbol.parse(LEAD_SHEET[index]);
+    }
+}
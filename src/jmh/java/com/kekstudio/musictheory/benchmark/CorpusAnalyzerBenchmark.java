@@ -0,0 +1,67 @@
+package com.kekstudio.musictheory.benchmark;
+
+import com.kekstudio.musictheory.CorpusAnalysis;
+import com.kekstudio.musictheory.CorpusAnalyzer;
+import com.kekstudio.musictheory.Key;
+import com.kekstudio.musictheory.Progression;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of CorpusAnalyzer on a corpus of progressions in all major keys, with 1 to 8 threads.
+ * @author Andy671
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CorpusAnalyzerBenchmark {
+
+    private static final String[] KEYS = {"C", "G", "D", "A", "E", "B", "F#", "Db", "Ab", "Eb", "Bb", "F"};
+    private static final String[] PROGRESSIONS = {
+        "ii7 V7 Imaj7 vi7", "I vi IV V", "I V vi IV", "I bVII IV I", "iii7 vi7 ii7 V7 I", "I IV viiø7 iii7 vi7 ii7 V7 I"
+    };
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private final List<CorpusAnalyzer.Song> songs = new ArrayList<>();
+    private final CorpusAnalyzer analyzer = new CorpusAnalyzer(3);
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp(){
+        for(int i = 0; i < 10000; i++){
+            Key key = new Key(KEYS[i % KEYS.length], "major");
+            songs.add(new CorpusAnalyzer.Song(new Progression(key, PROGRESSIONS[i % PROGRESSIONS.length])));
+        }
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown
+    public void tearDown(){
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public CorpusAnalysis analyze(){
+        return analyzer.analyze(songs, executor);
+    }
+}
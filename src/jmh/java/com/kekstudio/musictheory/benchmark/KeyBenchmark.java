@@ -0,0 +1,64 @@
+package com.kekstudio.musictheory.benchmark;
+
+import com.kekstudio.musictheory.Chord;
+import com.kekstudio.musictheory.Key;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of Key creation, chords from degrees and chord identification.
+ * @author Andy671
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KeyBenchmark {
+
+    @Param({"major", "minor", "dorian"})
+    public String keyType;
+
+    @Param({"I", "ii7", "V7", "bVII"})
+    public String degree;
+
+    private Key key;
+    private int noteIndex;
+
+    @Setup
+    public void setUp(){
+        key = new Key("Eb", keyType);
+    }
+
+    @Benchmark
+    public Key newKey(){
+        return new Key("Eb", keyType);
+    }
+
+    @Benchmark
+    public Chord chordFromTraditionalDegree(){
+        return key.chord(degree);
+    }
+
+    @Benchmark
+    public Chord identifySeventh(){
+        noteIndex = (noteIndex + 1) % 7;
+        return key.identifySeventh(noteIndex);
+    }
+
+    @Benchmark
+    public String keyToString(){
+        return key.toString();
+    }
+}
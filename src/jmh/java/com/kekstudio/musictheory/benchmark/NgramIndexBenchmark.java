@@ -0,0 +1,55 @@
+package com.kekstudio.musictheory.benchmark;
+
+import com.kekstudio.musictheory.Key;
+import com.kekstudio.musictheory.NgramIndex;
+import com.kekstudio.musictheory.Progression;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of NgramIndex queries on progressions in all major and minor keys, for n-grams looked up
+ * directly and for longer queries intersecting posting lists.
+ * @author Andy671
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NgramIndexBenchmark {
+
+    private static final String[] KEYS = {"C", "G", "D", "A", "E", "B", "F#", "Db", "Ab", "Eb", "Bb", "F"};
+    private static final String[] PROGRESSIONS = {
+        "ii7 V7 Imaj7 vi7", "I vi IV V", "I V vi IV", "I bVII IV I", "iii7 vi7 ii7 V7 Imaj7", "i iv V7 i", "iiø7 V7 i"
+    };
+
+    @Param({"ii7 V7 Imaj7", "V7 i", "vi7 ii7 V7 Imaj7", "iii7 vi7 ii7 V7 Imaj7"})
+    public String query;
+
+    private final NgramIndex index = new NgramIndex();
+
+    @Setup
+    public void setUp(){
+        for(int i = 0; i < 100000; i++){
+            int progression = i % PROGRESSIONS.length;
+            String keyType = progression >= 5 ? "minor" : "major";
+            index.add(new Progression(new Key(KEYS[i % KEYS.length], keyType), PROGRESSIONS[progression]));
+        }
+    }
+
+    @Benchmark
+    public int[] find(){
+        return index.find(query);
+    }
+}
@@ -0,0 +1,68 @@
+package com.kekstudio.musictheory.benchmark;
+
+import com.kekstudio.musictheory.Note;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of Note creation, interval arithmetic and formatting.
+ * @author Andy671
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NoteBenchmark {
+
+    @Param({"C", "F#", "Bb", "Ebb"})
+    public String name;
+
+    @Param({"m2", "M3", "P5", "A5", "M7"})
+    public String interval;
+
+    private Note note;
+    private Note target;
+
+    @Setup
+    public void setUp(){
+        note = new Note(name);
+        target = new Note("C");
+    }
+
+    @Benchmark
+    public Note newNote(){
+        return new Note(name);
+    }
+
+    @Benchmark
+    public Note noteOf(){
+        return Note.of(name);
+    }
+
+    @Benchmark
+    public Note add(){
+        return note.add(interval);
+    }
+
+    @Benchmark
+    public Note addIntoTarget(){
+        return note.add(interval, target);
+    }
+
+    @Benchmark
+    public String noteToString(){
+        return note.toString();
+    }
+}
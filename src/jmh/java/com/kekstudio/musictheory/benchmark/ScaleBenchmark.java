@@ -0,0 +1,51 @@
+package com.kekstudio.musictheory.benchmark;
+
+import com.kekstudio.musictheory.Note;
+import com.kekstudio.musictheory.Scale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of Note.scale for every entry of Music.Scales.
+ * @author Andy671
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScaleBenchmark {
+
+    @Param({"major", "minor", "dorian", "phrygian", "lydian", "mixolydian", "locrian"})
+    public String scaleType;
+
+    private Note root;
+    private Scale scale;
+
+    @Setup
+    public void setUp(){
+        root = new Note("F#");
+        scale = root.scale(scaleType);
+    }
+
+    @Benchmark
+    public Scale scale(){
+        return root.scale(scaleType);
+    }
+
+    @Benchmark
+    public String scaleToString(){
+        return scale.toString();
+    }
+}
@@ -3,13 +3,17 @@ package com.kekstudio.musictheory;
 /**
  * Music Chord.
  * Chord contains notes and can have different octaves and inversions.
+ * The notes are the chord tones only: the bass of a slash chord which is not a chord tone (e.g. F# in C/F#)
+ * is kept apart, below the chord tones (see getAddedBass).
  * @author Andy671
  */
 public class Chord extends Scale{
     
     private String name;
+    private String type;
     private int position;
     private String romanNumeral = "";
+    private Note bass;
     
     /**
      * Initializes the chord with a root note and intervals.
@@ -18,31 +22,94 @@ public class Chord extends Scale{
      */
     public Chord(Note rootNote, String[] intervals) {
         super(rootNote, intervals);
-        if(!Music.ChordsInverse.containsKey(intervals)){
+        type = IntervalIndex.chordType(intervals);
+        if(type == null){
             String intervalsString = " ";
             for(String str : intervals)
                 intervalsString += str + " ";
             
             throw new MusicTheoryException("Unknown chord with intervals '" + intervalsString + "'");
         }
-        String chordType = Music.ChordsInverse.get(intervals);
-        if(chordType.equals("maj"))
-            chordType = "";
-        name = rootNote.getName() + chordType;
+        name = rootNote.getName() + displayType(type);
         position = 0;
     }
     
+    /**
+     * Initializes the chord with a root note and a registered type, whose intervals are already resolved.
+     */
+    Chord(Note rootNote, String[] intervals, int[] intervalIds, String chordType){
+        super(rootNote, intervals, intervalIds);
+        type = chordType;
+        name = rootNote.getName() + displayType(type);
+        position = 0;
+    }
+    
+    /**
+     * Initializes the chord with packed notes (see PackedNote) in root position and a type.
+     * Throws MusicTheoryException when the notes are not the ones of the type.
+     * @param packedNotes the packed notes of the chord, root first.
+     * @param chordType the type of the chord (e.g. m7).
+     */
+    public Chord(int[] packedNotes, String chordType){
+        this(PackedNote.toNotes(packedNotes), chordType, chordIntervals(chordType));
+    }
+    
+    private Chord(Note[] notes, String chordType, String[] intervals){
+        super(checkNotes(notes, chordType, intervals), intervals);
+        type = chordType;
+        name = notes[0].getName() + displayType(type);
+        position = 0;
+    }
+    
+    private Chord(Note[] notes, Chord chord, String name, Note bass){
+        super(notes, chord.getIntervals());
+        this.name = name;
+        this.type = chord.type;
+        this.position = chord.position;
+        this.romanNumeral = chord.romanNumeral;
+        this.bass = bass != null && bass.isShared() ? bass.copy() : bass;
+    }
+    
+    private static String[] chordIntervals(String chordType){
+        String[] intervals = MusicRegistry.snapshot().chordIntervals(chordType);
+        if(intervals == null){
+            throw new MusicTheoryException("Unknown chord type name '" + chordType + "'");
+        }
+        return intervals;
+    }
+    
+    // The notes must be the root and one note per interval of the type, spelled as the type gives them.
+    // Their octaves are not checked, the chord can be voiced.
+    private static Note[] checkNotes(Note[] notes, String chordType, String[] intervals){
+        if(notes.length != intervals.length + 1){
+            throw new MusicTheoryException("Wrong number of notes for chord type '" + chordType + "': " + notes.length);
+        }
+        for(int i = 1; i < notes.length; i++){
+            Note expected = notes[0].add(SpellingTable.checkedIntervalId(intervals[i-1]), null);
+            if(!expected.getName().equals(notes[i].getName())){
+                throw new MusicTheoryException("Wrong note " + notes[i].getName() + " for chord type '" + chordType
+                                               + "' on " + notes[0].getName() + ", expected " + expected.getName());
+            }
+        }
+        return notes;
+    }
+    
+    private static String displayType(String chordType){
+        return chordType.equals("maj") ? "" : chordType;
+    }
+    
     /**
      * Sets the inversion of the chord.
      * @param position
      */
     public void setPosition(int position){
+        long startNanos = TheoryMetrics.ENABLED ? System.nanoTime() : 0L;
         int steps = this.position - position;
         
         if(steps > 0){
             for(int i = 0; i < steps; i++){
                 Note first = notes[0];
-                first.setOctave(first.getOctave()+1);
+                first.moveToOctave(first.getOctave()-1);
                 for(int j = 0; j < notes.length-1; j++){
                     notes[j] = notes[j+1];
                 }
@@ -51,7 +118,7 @@ public class Chord extends Scale{
         }else if (steps < 0){
             for(int i = 0; i < Math.abs(steps); i++){
                 Note last = notes[notes.length-1];
-                last.setOctave(last.getOctave()-1);
+                last.moveToOctave(last.getOctave()+1);
                 for(int j = notes.length-1; j > 0; j--){
                     notes[j] = notes[j-1];
                 }
@@ -60,6 +127,123 @@ public class Chord extends Scale{
         }
         
         this.position = position;
+        if(TheoryMetrics.ENABLED){
+            TheoryMetrics.record(TheoryMetrics.CHORD_POSITION, startNanos);
+        }
+    }
+    
+    /**
+     * Returns a copy of the chord in another inversion. Does not modify this chord.
+     * @param position
+     * @return the new chord.
+     */
+    public Chord withInversion(int position){
+        Chord chord = copy();
+        chord.setPosition(position);
+        return chord;
+    }
+    
+    /**
+     * Returns a chord of the same type with other notes (e.g. a voicing), inversion and added bass.
+     */
+    Chord withNotes(Note[] newNotes, int newPosition, Note newBass){
+        Chord chord = new Chord(newNotes, this, name, newBass);
+        chord.position = newPosition;
+        return chord;
+    }
+    
+    /**
+     * Returns the inversion of this chord in root position with a chord tone in the bass. The root keeps
+     * its octave, the tones from the bass on are moved an octave down, below it.
+     * @param bassTone the index of the bass in the notes in root position.
+     */
+    Chord withBassTone(int bassTone){
+        Note[] inverted = new Note[notes.length];
+        for(int i = 0; i < notes.length; i++){
+            int tone = (bassTone + i) % notes.length;
+            Note note = notes[tone];
+            inverted[i] = bassTone > 0 && tone >= bassTone ? note.withOctave(note.getOctave() - 1) : note.copy();
+        }
+        return withNotes(inverted, position(bassTone, notes.length), bass != null ? bass.copy() : null);
+    }
+    
+    /**
+     * Returns the index in root position of the chord tone in the bass of an inversion: the inversion p of
+     * a chord of n notes starts with the tone (n - p) % n, as setPosition moves the last notes first.
+     */
+    static int bassTone(int position, int size){
+        int tone = -position % size;
+        return tone < 0 ? tone + size : tone;
+    }
+    
+    /**
+     * Returns the inversion with a chord tone in the bass (see bassTone).
+     * @param bassTone the index of the bass in root position.
+     */
+    static int position(int bassTone, int size){
+        int position = -bassTone % size;
+        return position < 0 ? position + size : position;
+    }
+    
+    /**
+     * Returns the root note, which is not the lowest note of inversions, voicings and slash chords.
+     */
+    Note rootNote(){
+        if(position == 0 && notes.length == getIntervals().length + 1){
+            return notes[0];
+        }
+        String rootName = name.substring(0, name.length() - displayType(type).length());
+        for(Note note : notes){
+            if(note.getName().equals(rootName)){
+                return note;
+            }
+        }
+        return notes[0];
+    }
+    
+    @Override
+    public Chord copy(){
+        return new Chord(copyNotes(), this, name, bass != null ? bass.copy() : null);
+    }
+    
+    /**
+     * Sets octave of the chord, the added bass is moved by the same number of octaves.
+     * @param octave
+     */
+    @Override
+    public void setOctave(int octave){
+        int octaveDifference = octave - notes[0].getOctave();
+        super.setOctave(octave);
+        if(bass != null){
+            bass.moveToOctave(bass.getOctave() + octaveDifference);
+        }
+    }
+    
+    @Override
+    public Chord withOctave(int octave){
+        Chord chord = copy();
+        chord.setOctave(octave);
+        return chord;
+    }
+    
+    @Override
+    public Chord sorted(){
+        Chord chord = copy();
+        chord.sort();
+        return chord;
+    }
+    
+    @Override
+    public Chord transpose(String intervalSymbol){
+        return transpose(SpellingTable.checkedIntervalId(intervalSymbol));
+    }
+    
+    @Override
+    Chord transpose(int intervalId){
+        String rootName = name.substring(0, name.length() - displayType(type).length());
+        String transposedName = Note.of(rootName).transpose(intervalId).getName() + displayType(type);
+        Note transposedBass = bass != null ? bass.add(intervalId, null) : null;
+        return new Chord(transposeNotes(intervalId), this, transposedName, transposedBass);
     }
     
     /**
@@ -79,7 +263,16 @@ public class Chord extends Scale{
     }  
     
     /**
-     * Gets the inversion of the chord
+     * Gets the type of the chord
+     * @return chord type (see MusicRegistry, e.g. m7, maj)
+     */
+    public String getType(){
+        return type;
+    }
+    
+    /**
+     * Gets the inversion of the chord. The inversion p of a chord of n notes starts with the chord tone
+     * (n - p) % n of the root position (e.g. 2 for C/E, 1 for C/G), as setPosition moves the last notes first.
      * @return
      */
     public int getPosition(){
@@ -94,15 +287,56 @@ public class Chord extends Scale{
         return romanNumeral;
     }
     
+    /**
+     * Gets the bass note of a slash chord which is not a chord tone (e.g. F# in C/F#), below the notes.
+     * Slash chords with a chord tone in the bass are inversions (see ChordSymbol).
+     * @return the added bass, or null.
+     */
+    public Note getAddedBass(){
+        return bass;
+    }
+    
+    @Override
+    public int hashCode() {
+        int hash = super.hashCode();
+        hash = 31 * hash + this.name.hashCode();
+        hash = 31 * hash + this.position;
+        hash = 31 * hash + this.romanNumeral.hashCode();
+        hash = 31 * hash + (this.bass != null ? this.bass.hashCode() : 0);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) {
+            return false;
+        }
+        final Chord other = (Chord) obj;
+        return this.position == other.position
+               && this.name.equals(other.name)
+               && this.romanNumeral.equals(other.romanNumeral)
+               && (this.bass != null ? this.bass.equals(other.bass) : other.bass == null);
+    }
+    
     @Override
     public String toString() {
-        String returnString = name + " " + getTheoryDegree() + " inversion[" + String.valueOf(position) + "] {";
-        for(Note note : notes){
-            returnString += note.toString() + ", ";
+        return appendTo(new StringBuilder(16 * (notes.length + 2))).toString();
+    }
+    
+    /**
+     * Appends the chord in the format of toString (e.g. Cm7 i7 inversion[0] {C4[60], Eb4[63], ...}),
+     * with the added bass after the name (e.g. C/F#).
+     * @param builder the builder to append to.
+     * @return the builder.
+     */
+    @Override
+    public StringBuilder appendTo(StringBuilder builder){
+        builder.append(name);
+        if(bass != null){
+            builder.append('/').append(bass.getName());
         }
-        returnString = returnString.substring(0, returnString.length()-2);
-        returnString += "}";
-        return returnString;
+        builder.append(' ').append(romanNumeral).append(" inversion[").append(position).append("] ");
+        return appendNotesTo(builder);
     }    
 
     
@@ -0,0 +1,98 @@
+package com.kekstudio.musictheory;
+
+/**
+ * A chord recognized from a set of midi values.
+ * @author Andy671
+ */
+public final class ChordCandidate {
+
+    private final String rootName;
+    private final int rootMidiValue;
+    private final String bassName;
+    private final int bassMidiValue;
+    private final String type;
+    private final int inversion;
+    private final boolean exact;
+    private final int score;
+
+    ChordCandidate(String rootName, int rootMidiValue, String bassName, int bassMidiValue,
+                   String type, int inversion, boolean exact, int score){
+        this.rootName = rootName;
+        this.rootMidiValue = rootMidiValue;
+        this.bassName = bassName;
+        this.bassMidiValue = bassMidiValue;
+        this.type = type;
+        this.inversion = inversion;
+        this.exact = exact;
+        this.score = score;
+    }
+
+    /**
+     * @return a new root note, in the octave of its lowest occurrence.
+     */
+    public Note getRoot(){
+        return spell(rootName, rootMidiValue).copy();
+    }
+
+    /**
+     * @return a new lowest note.
+     */
+    public Note getBass(){
+        return spell(bassName, bassMidiValue).copy();
+    }
+
+    /**
+     * @return the chord type (see MusicRegistry).
+     */
+    public String getType(){
+        return type;
+    }
+
+    /**
+     * @return the inversion, as the index of the bass note among the chord notes in root position
+     *         (the position of toChord is that of the bass, see Chord.getPosition).
+     */
+    public int getInversion(){
+        return inversion;
+    }
+
+    /**
+     * @return true if the notes match the chord exactly, false if the fifth is omitted.
+     */
+    public boolean isExact(){
+        return exact;
+    }
+
+    /**
+     * @return the ranking score, higher is better.
+     */
+    public int getScore(){
+        return score;
+    }
+
+    /**
+     * Builds the chord with the recognized root, type and inversion, the bass in its octave.
+     * @return the chord.
+     */
+    public Chord toChord(){
+        Chord chord = spell(rootName, rootMidiValue).chord(type);
+        if(inversion == 0){
+            return chord;
+        }
+        chord = chord.withBassTone(inversion);
+        chord.setOctave(spell(bassName, bassMidiValue).getOctave());
+        return chord;
+    }
+
+    // The spelled note is shared (see Note.spell), the chord copies it.
+    private static Note spell(String name, int midiValue){
+        Note note = new Note(name);
+        return Note.spell(note.getLetterIndex(), note.getAccidentals(), midiValue);
+    }
+
+    @Override
+    public String toString() {
+        String chordType = type.equals("maj") ? "" : type;
+        return rootName + chordType + (inversion == 0 ? "" : "/" + bassName) + " score[" + score + "]";
+    }
+}
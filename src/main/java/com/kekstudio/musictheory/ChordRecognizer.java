@@ -0,0 +1,225 @@
+package com.kekstudio.musictheory;
+
+/**
+ * Chord recognition from midi values.
+ * Identifies the registered chord types (see MusicRegistry) in any voicing or inversion,
+ * using a precomputed table from 12-bit pitch class masks to chord types.
+ * @author Andy671
+ */
+public class ChordRecognizer {
+
+    private static final int PITCH_CLASSES = 12;
+    private static final int MASK_COUNT = 1 << PITCH_CLASSES;
+    private static final int NONE = -1;
+
+    private static final int SCORE_EXACT = 4;
+    private static final int SCORE_OMITTED_FIFTH = 2;
+    private static final int SCORE_ROOT_POSITION = 1;
+
+    private static volatile Tables tables;
+
+    private final String[] spellings;
+    private final int[] letterIndexes = new int[PITCH_CLASSES];
+    private final int[] accidentals = new int[PITCH_CLASSES];
+
+    /**
+     * Initializes the recognizer, spelling roots as in Music.ScaleAlterations for major keys.
+     */
+    public ChordRecognizer(){
+        spellings = Music.ScaleAlterations.get("major").clone();
+        for(int i = 0; i < PITCH_CLASSES; i++){
+            setSpelling(i, new Note(spellings[i]));
+        }
+    }
+
+    /**
+     * Initializes the recognizer, spelling roots as in the given key where possible.
+     * @param key the key used to spell the recognized notes.
+     */
+    public ChordRecognizer(Key key){
+        this();
+        for(Note note : key.getScale().notes){
+            setSpelling(note.getMidiValue() % PITCH_CLASSES, note);
+        }
+    }
+
+    private void setSpelling(int pitchClass, Note note){
+        spellings[pitchClass] = note.getName();
+        letterIndexes[pitchClass] = note.getLetterIndex();
+        accidentals[pitchClass] = note.getAccidentals();
+    }
+
+    /**
+     * Computes the pitch class mask of midi values.
+     * @param midiValues the midi values.
+     * @return the mask with bit n set for every pitch class n.
+     */
+    public static int pitchClassMask(int[] midiValues){
+        int mask = 0;
+        for(int midiValue : midiValues){
+            mask |= 1 << (midiValue % PITCH_CLASSES);
+        }
+        return mask;
+    }
+
+    /**
+     * Recognizes the chords formed by the midi values, best candidate first.
+     * Exact matches rank above chords with an omitted fifth, and root position ranks above inversions.
+     * @param midiValues the midi values of the notes, in any order.
+     * @return the candidates, empty if no chord matches.
+     */
+    public ChordCandidate[] recognize(int[] midiValues){
+        if(midiValues.length == 0){
+            return new ChordCandidate[0];
+        }
+        int mask = pitchClassMask(midiValues);
+        Tables tables = tables();
+
+        int count = 0;
+        for(int root = 0; root < PITCH_CLASSES; root++){
+            if((mask & (1 << root)) != 0){
+                int relativeMask = rotate(mask, root);
+                if(tables.exactTypes[relativeMask] != NONE) count++;
+                if(tables.omittedFifthTypes[relativeMask] != NONE) count++;
+            }
+        }
+
+        ChordCandidate[] candidates = new ChordCandidate[count];
+        if(count == 0){
+            return candidates;
+        }
+
+        int bass = midiValues[0];
+        for(int midiValue : midiValues){
+            bass = Math.min(bass, midiValue);
+        }
+
+        int index = 0;
+        for(int root = 0; root < PITCH_CLASSES; root++){
+            if((mask & (1 << root)) != 0){
+                int relativeMask = rotate(mask, root);
+                if(tables.exactTypes[relativeMask] != NONE){
+                    candidates[index++] = candidate(tables, midiValues, root, bass, tables.exactTypes[relativeMask], true);
+                }
+                if(tables.omittedFifthTypes[relativeMask] != NONE){
+                    candidates[index++] = candidate(tables, midiValues, root, bass, tables.omittedFifthTypes[relativeMask], false);
+                }
+            }
+        }
+
+        for(int i = 1; i < candidates.length; i++){
+            ChordCandidate current = candidates[i];
+            int j = i - 1;
+            while(j >= 0 && candidates[j].getScore() < current.getScore()){
+                candidates[j + 1] = candidates[j];
+                j--;
+            }
+            candidates[j + 1] = current;
+        }
+        return candidates;
+    }
+
+    /**
+     * Recognizes the best chord formed by the midi values.
+     * @param midiValues the midi values of the notes, in any order.
+     * @return the best candidate, or null if no chord matches.
+     */
+    public ChordCandidate recognizeBest(int[] midiValues){
+        ChordCandidate[] candidates = recognize(midiValues);
+        return candidates.length == 0 ? null : candidates[0];
+    }
+
+    private ChordCandidate candidate(Tables tables, int[] midiValues, int root, int bass, int type, boolean exact){
+        int rootMidiValue = Integer.MAX_VALUE;
+        for(int midiValue : midiValues){
+            if(midiValue % PITCH_CLASSES == root){
+                rootMidiValue = Math.min(rootMidiValue, midiValue);
+            }
+        }
+
+        int bassStep = (bass - root + PITCH_CLASSES) % PITCH_CLASSES;
+        int inversion = 0;
+        int[] steps = tables.typeSteps[type];
+        for(int i = 0; i < steps.length; i++){
+            if(steps[i] == bassStep){
+                inversion = i;
+                break;
+            }
+        }
+
+        int score = exact ? SCORE_EXACT : SCORE_OMITTED_FIFTH;
+        if(inversion == 0){
+            score += SCORE_ROOT_POSITION;
+        }
+
+        String bassName = spellings[root];
+        if(inversion > 0){
+            int spelling = SpellingTable.transpose(letterIndexes[root], accidentals[root],
+                                                   tables.typeIntervalIds[type][inversion - 1]);
+            bassName = SpellingTable.name(SpellingTable.letterOf(spelling), SpellingTable.accidentalsOf(spelling));
+        }
+
+        return new ChordCandidate(spellings[root], rootMidiValue, bassName, bass,
+                                  tables.registry.chordTypes[type], inversion, exact, score);
+    }
+
+    private static Tables tables(){
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        Tables current = tables;
+        if(current == null || current.registry != registry){
+            current = new Tables(registry);
+            tables = current;
+        }
+        return current;
+    }
+
+    private static int rotate(int mask, int root){
+        return ((mask >>> root) | (mask << (PITCH_CLASSES - root))) & (MASK_COUNT - 1);
+    }
+
+    /**
+     * Recognition tables of the chord types of a registry snapshot, indexed by chord id.
+     */
+    private static final class Tables {
+
+        private final MusicRegistry.Snapshot registry;
+        private final int[][] typeSteps;
+        private final int[][] typeIntervalIds;
+        private final int[] exactTypes = new int[MASK_COUNT];
+        private final int[] omittedFifthTypes = new int[MASK_COUNT];
+
+        Tables(MusicRegistry.Snapshot registry){
+            this.registry = registry;
+            int typeCount = registry.chordTypes.length;
+            typeSteps = new int[typeCount][];
+            typeIntervalIds = new int[typeCount][];
+            for(int i = 0; i < MASK_COUNT; i++){
+                exactTypes[i] = NONE;
+                omittedFifthTypes[i] = NONE;
+            }
+
+            int fifth = Music.Intervals.get("P5").steps;
+            for(int type = 0; type < typeCount; type++){
+                String[] intervals = registry.chordIntervals[type];
+                int[] steps = new int[intervals.length + 1];
+                int[] intervalIds = new int[intervals.length];
+                int mask = 1;
+                for(int i = 0; i < intervals.length; i++){
+                    intervalIds[i] = SpellingTable.intervalId(intervals[i]);
+                    steps[i + 1] = SpellingTable.interval(intervalIds[i]).steps % PITCH_CLASSES;
+                    mask |= 1 << steps[i + 1];
+                }
+                typeSteps[type] = steps;
+                typeIntervalIds[type] = intervalIds;
+
+                if(exactTypes[mask] == NONE){
+                    exactTypes[mask] = type;
+                }
+                int withoutFifth = mask & ~(1 << fifth);
+                if(withoutFifth != mask && Integer.bitCount(withoutFifth) > 2 && omittedFifthTypes[withoutFifth] == NONE){
+                    omittedFifthTypes[withoutFifth] = type;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.kekstudio.musictheory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser of lead-sheet chord symbols (e.g. F#m7b5/C, Bbmaj7#11, C7(b9,b13), C6/9).
+ * A symbol is read in a single pass: the root, the longest matching quality (a chord type of
+ * MusicRegistry or a common alias such as -7, Δ7 or ø), the extensions and alterations, and the slash bass.
+ * The intervals are collected as an interval signature (see IntervalIndex), so symbols spelled differently
+ * resolve to the same registered type (e.g. Cmi7 and C-7 to Cm7). Other interval sets keep the normalized
+ * suffix as their type (e.g. maj7#11). A slash bass that is a chord tone gives an inversion,
+ * any other bass is the added bass of the chord, below the root (see Chord.getAddedBass).
+ * @author Andy671
+ */
+public final class ChordSymbol {
+
+    private static final int PITCH_CLASSES = 12;
+    private static final int MAX_FIRST_CHAR = 0x400;
+
+    private static final String[] INTERVAL_SYMBOLS = Music.Intervals.keySet().toArray(new String[Music.Intervals.size()]);
+    private static final long THIRDS = bits("m3", "M3");
+    private static final long FIFTHS = bits("d5", "P5", "A5");
+    private static final long NINTHS = bits("m9", "M9", "A9");
+    private static final long MAJOR_NINTH = bits("M9");
+
+    // Modifier operations.
+    private static final int ADD = 0;
+    private static final int EXTEND = 1;
+    private static final int FIFTH = 2;
+    private static final int THIRD = 3;
+    private static final int OMIT = 4;
+
+    // Aliases of the qualities: symbol, canonical type, intervals.
+    private static final Map<String, String> QUALITY_TYPES = new LinkedHashMap<>();
+    private static final Map<String, Long> QUALITY_INTERVALS = new LinkedHashMap<>();
+
+    static{
+        quality("maj", "M3 P5", "maj", "M");
+        quality("m", "m3 P5", "m", "min", "mi", "-");
+        quality("dim", "m3 d5", "dim", "°", "o");
+        quality("aug", "M3 A5", "aug", "+");
+        quality("sus", "P4 P5", "sus", "sus4");
+        quality("sus2", "M2 P5", "sus2");
+        quality("5", "P5", "5");
+        quality("maj6", "M3 P5 M6", "6", "maj6", "M6");
+        quality("m6", "m3 P5 M6", "m6", "min6", "mi6", "-6");
+        quality("6/9", "M3 P5 M6 M9", "6/9", "69");
+        quality("m6/9", "m3 P5 M6 M9", "m6/9", "m69", "-6/9");
+        quality("7", "M3 P5 m7", "7", "dom7");
+        quality("m7", "m3 P5 m7", "m7", "min7", "mi7", "-7");
+        quality("maj7", "M3 P5 M7", "maj7", "M7", "ma7", "Δ", "Δ7", "j7");
+        quality("7sus", "P4 P5 m7", "7sus", "7sus4");
+        quality("dim7", "m3 d5 d7", "dim7", "°7", "o7");
+        quality("m7b5", "m3 d5 m7", "m7b5", "ø", "ø7", "-7b5", "min7b5", "mi7b5");
+        quality("mmaj7", "m3 P5 M7", "mmaj7", "mM7", "m(maj7)", "-maj7", "minmaj7", "mΔ7", "-Δ7");
+        quality("aug7", "M3 A5 m7", "aug7", "+7", "7+");
+        quality("maj7b5", "M3 d5 M7", "maj7b5");
+        quality("maj7#5", "M3 A5 M7", "maj7#5", "+maj7", "maj7+");
+        quality("9", "M3 P5 m7 M9", "9", "dom9");
+        quality("m9", "m3 P5 m7 M9", "m9", "min9", "mi9", "-9");
+        quality("maj9", "M3 P5 M7 M9", "maj9", "M9", "ma9", "Δ9");
+        quality("11", "M3 P5 m7 M9 P11", "11");
+        quality("m11", "m3 P5 m7 M9 P11", "m11", "min11", "mi11", "-11");
+        quality("13", "M3 P5 m7 M9 M13", "13");
+        quality("m13", "m3 P5 m7 M9 M13", "m13", "min13", "mi13", "-13");
+        quality("maj13", "M3 P5 M7 M9 M13", "maj13", "M13", "ma13", "Δ13");
+    }
+
+    // Music.Intervals has no augmented 13th, so #13 is an unknown modifier rather than a natural 13th.
+    private static final String[] MODIFIER_SYMBOLS = {
+        "add2", "add4", "add6", "add9", "add11", "add13", "2", "4",
+        "9", "11", "13", "b9", "#9", "#11", "b13",
+        "b5", "-5", "#5", "+5", "sus4", "sus2", "sus",
+        "omit3", "no3", "omit5", "no5"
+    };
+    private static final String[] MODIFIER_CANONICAL = {
+        "add2", "add4", "add6", "add9", "add11", "add13", "add2", "add4",
+        "9", "11", "13", "b9", "#9", "#11", "b13",
+        "b5", "b5", "#5", "#5", "sus4", "sus2", "sus4",
+        "omit3", "omit3", "omit5", "omit5"
+    };
+    private static final int[] MODIFIER_OPERATIONS = {
+        ADD, ADD, ADD, ADD, ADD, ADD, ADD, ADD,
+        EXTEND, EXTEND, EXTEND, ADD, ADD, ADD, ADD,
+        FIFTH, FIFTH, FIFTH, FIFTH, THIRD, THIRD, THIRD,
+        OMIT, OMIT, OMIT, OMIT
+    };
+    private static final long[] MODIFIER_INTERVALS = {
+        bits("M2"), bits("P4"), bits("M6"), bits("M9"), bits("P11"), bits("M13"), bits("M2"), bits("P4"),
+        bits("M9"), bits("P11"), bits("M13"), bits("m9"), bits("A9"), bits("A11"), bits("m13"),
+        bits("d5"), bits("d5"), bits("A5"), bits("A5"), bits("P4"), bits("M2"), bits("P4"),
+        THIRDS, THIRDS, FIFTHS, FIFTHS
+    };
+    private static final SymbolTable MODIFIERS = new SymbolTable(MODIFIER_SYMBOLS);
+
+    private static volatile Tables tables;
+
+    private ChordSymbol(){
+    }
+
+    /**
+     * Parses a chord symbol, with the root in octave 4.
+     * @param symbol the chord symbol (e.g. F#m7b5/C).
+     * @return the chord.
+     */
+    public static Chord parse(String symbol){
+        return parse(symbol, 4);
+    }
+
+    /**
+     * Parses a chord symbol.
+     * @param symbol the chord symbol (e.g. F#m7b5/C).
+     * @param octave the octave of the root.
+     * @return the chord.
+     */
+    public static Chord parse(String symbol, int octave){
+        ParseResult<Chord> result = tryParse(symbol, octave);
+        if(!result.isValid()){
+            throw new MusicTheoryException(result.getErrorMessage() + " in chord symbol '" + symbol + "'");
+        }
+        return result.getValue();
+    }
+
+    /**
+     * Parses a chord symbol without throwing, for untrusted input.
+     * @param symbol the chord symbol (e.g. F#m7b5/C).
+     * @param octave the octave of the root.
+     * @return the chord, or the error code.
+     */
+    public static ParseResult<Chord> tryParse(String symbol, int octave){
+        if(symbol == null || symbol.isEmpty()){
+            return ParseResult.failure(ParseResult.EMPTY_INPUT);
+        }
+        int length = symbol.length();
+
+        int rootLetter = SpellingTable.letterIndex(symbol.charAt(0));
+        if(rootLetter == -1){
+            return ParseResult.failure(ParseResult.WRONG_NOTE_NAME);
+        }
+        int index = 1;
+        int rootAccidentals = 0;
+        for(; index < length; index++){
+            char c = symbol.charAt(index);
+            if(c == Music.SHARP){
+                rootAccidentals++;
+            }else if(c == Music.FLAT){
+                rootAccidentals--;
+            }else{
+                break;
+            }
+        }
+
+        Tables current = tables();
+        int quality = current.qualities.match(symbol, index, length);
+        // A longer modifier wins over a quality alias (e.g. Comit3 is C omit3, not Co mit3).
+        int modifierAtQuality = MODIFIERS.match(symbol, index, length);
+        if(quality != -1 && modifierAtQuality != -1
+                && MODIFIER_SYMBOLS[modifierAtQuality].length() > current.qualities.symbols[quality].length()){
+            quality = -1;
+        }
+        long intervals;
+        String qualityType;
+        if(quality == -1){
+            intervals = current.qualityIntervals[current.majorQuality];
+            qualityType = current.qualityTypes[current.majorQuality];
+        }else{
+            intervals = current.qualityIntervals[quality];
+            qualityType = current.qualityTypes[quality];
+            index += current.qualities.symbols[quality].length();
+        }
+
+        // Modifiers, up to the slash bass. A slash followed by a digit is an added note (e.g. C6/9).
+        int[] modifiers = null;
+        int modifierCount = 0;
+        while(index < length){
+            char c = symbol.charAt(index);
+            if(c == '(' || c == ')' || c == ',' || c == ' '){
+                index++;
+                continue;
+            }
+            if(c == '/' && (index + 1 >= length || !Character.isDigit(symbol.charAt(index + 1)))){
+                break;
+            }
+            int start = c == '/' ? index + 1 : index;
+            int modifier = MODIFIERS.match(symbol, start, length);
+            if(modifier == -1){
+                return ParseResult.failure(ParseResult.UNKNOWN_CHORD_TYPE);
+            }
+            intervals = modify(intervals, modifier);
+            if(modifiers == null){
+                modifiers = new int[4];
+            }else if(modifierCount == modifiers.length){
+                int[] grown = new int[modifierCount * 2];
+                System.arraycopy(modifiers, 0, grown, 0, modifierCount);
+                modifiers = grown;
+            }
+            modifiers[modifierCount++] = modifier;
+            index = start + MODIFIER_SYMBOLS[modifier].length();
+        }
+
+        int bassLetter = -1;
+        int bassAccidentals = 0;
+        if(index < length){
+            // symbol.charAt(index) is the slash.
+            bassLetter = index + 1 < length ? SpellingTable.letterIndex(symbol.charAt(index + 1)) : -1;
+            if(bassLetter == -1){
+                return ParseResult.failure(ParseResult.WRONG_NOTE_NAME);
+            }
+            for(index += 2; index < length; index++){
+                char c = symbol.charAt(index);
+                if(c == Music.SHARP){
+                    bassAccidentals++;
+                }else if(c == Music.FLAT){
+                    bassAccidentals--;
+                }else{
+                    return ParseResult.failure(ParseResult.WRONG_ACCIDENTAL);
+                }
+            }
+        }
+
+        String type = IntervalIndex.chordType(intervals);
+        if(type == null){
+            type = canonicalType(qualityType, modifiers, modifierCount);
+        }
+        Chord chord = chord(Note.of(rootLetter, rootAccidentals, octave), intervals, type);
+        if(bassLetter != -1){
+            chord = withBass(chord, bassLetter, bassAccidentals);
+        }
+        return ParseResult.success(chord);
+    }
+
+    private static long modify(long intervals, int modifier){
+        long interval = MODIFIER_INTERVALS[modifier];
+        switch(MODIFIER_OPERATIONS[modifier]){
+            case EXTEND:
+                // 11 and 13 imply the 9th, unless the chord already has an altered one.
+                if(interval != MAJOR_NINTH && (intervals & NINTHS) == 0){
+                    intervals |= MAJOR_NINTH;
+                }
+                return intervals | interval;
+            case FIFTH:
+                return (intervals & ~FIFTHS) | interval;
+            case THIRD:
+                return (intervals & ~THIRDS) | interval;
+            case OMIT:
+                return intervals & ~interval;
+            default:
+                return intervals | interval;
+        }
+    }
+
+    private static String canonicalType(String qualityType, int[] modifiers, int modifierCount){
+        if(modifierCount == 0){
+            return qualityType;
+        }
+        StringBuilder builder = new StringBuilder(16);
+        // A major triad with modifiers is written without maj (e.g. Cadd9, not Cmajadd9).
+        if(!qualityType.equals("maj")){
+            builder.append(qualityType);
+        }
+        for(int i = 0; i < modifierCount; i++){
+            builder.append(MODIFIER_CANONICAL[modifiers[i]]);
+        }
+        return builder.toString();
+    }
+
+    private static Chord chord(Note root, long intervals, String type){
+        int count = Long.bitCount(intervals);
+        String[] symbols = new String[count];
+        int[] intervalIds = new int[count];
+        int i = 0;
+        for(long remaining = intervals; remaining != 0; remaining &= remaining - 1){
+            int intervalId = Long.numberOfTrailingZeros(remaining);
+            intervalIds[i] = intervalId;
+            symbols[i] = INTERVAL_SYMBOLS[intervalId];
+            i++;
+        }
+        return new Chord(root, symbols, intervalIds, type);
+    }
+
+    // A chord tone in the bass gives the inversion with that tone first (see Chord.withBassTone),
+    // moved by octaves so that the bass is within a tritone of the root.
+    // Any other bass is the added bass of the chord, below the root.
+    private static Chord withBass(Chord chord, int bassLetter, int bassAccidentals){
+        Note[] notes = chord.notes;
+        int bassPitchClass = pitchClass(SpellingTable.letterValue(bassLetter) + bassAccidentals);
+        for(int tone = 0; tone < notes.length; tone++){
+            if(pitchClass(notes[tone].getMidiValue()) == bassPitchClass){
+                if(tone == 0){
+                    return chord;
+                }
+                // withBassTone puts the bass an octave below its tone in root position.
+                int octaveShift = 1 - (notes[tone].getMidiValue() - notes[0].getMidiValue() + 5) / PITCH_CLASSES;
+                Chord inverted = chord.withBassTone(tone);
+                if(octaveShift != 0){
+                    inverted.setOctave(inverted.notes[0].getOctave() + octaveShift);
+                }
+                return inverted;
+            }
+        }
+        int rootMidiValue = notes[0].getMidiValue();
+        int bassMidiValue = rootMidiValue - pitchClass(rootMidiValue - bassPitchClass);
+        return chord.withNotes(notes, 0, Note.spell(bassLetter, bassAccidentals, bassMidiValue));
+    }
+
+    private static int pitchClass(int midiValue){
+        int pitchClass = midiValue % PITCH_CLASSES;
+        return pitchClass < 0 ? pitchClass + PITCH_CLASSES : pitchClass;
+    }
+
+    private static void quality(String type, String intervals, String... symbols){
+        long bits = bits(intervals.split(" "));
+        for(String symbol : symbols){
+            QUALITY_TYPES.put(symbol, type);
+            QUALITY_INTERVALS.put(symbol, bits);
+        }
+    }
+
+    private static long bits(String... intervals){
+        long bits = 0L;
+        for(String interval : intervals){
+            bits |= IntervalIndex.bit(SpellingTable.checkedIntervalId(interval));
+        }
+        return bits;
+    }
+
+    private static Tables tables(){
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        Tables current = tables;
+        if(current == null || current.registry != registry){
+            current = new Tables(registry);
+            tables = current;
+        }
+        return current;
+    }
+
+    /**
+     * Qualities of the aliases and of the registered chord types.
+     */
+    private static final class Tables {
+
+        private final MusicRegistry.Snapshot registry;
+        private final SymbolTable qualities;
+        private final String[] qualityTypes;
+        private final long[] qualityIntervals;
+        private final int majorQuality;
+
+        Tables(MusicRegistry.Snapshot registry){
+            this.registry = registry;
+            List<String> symbols = new ArrayList<>(QUALITY_TYPES.keySet());
+            List<String> types = new ArrayList<>(QUALITY_TYPES.values());
+            List<Long> intervals = new ArrayList<>(QUALITY_INTERVALS.values());
+            for(int id = 0; id < registry.chordTypes.length; id++){
+                String chordType = registry.chordTypes[id];
+                if(!QUALITY_TYPES.containsKey(chordType) && !chordType.isEmpty() && chordType.charAt(0) < MAX_FIRST_CHAR){
+                    symbols.add(chordType);
+                    types.add(chordType);
+                    intervals.add(bits(registry.chordIntervals[id]));
+                }
+            }
+            qualities = new SymbolTable(symbols.toArray(new String[symbols.size()]));
+            qualityTypes = types.toArray(new String[types.size()]);
+            qualityIntervals = new long[intervals.size()];
+            for(int i = 0; i < qualityIntervals.length; i++){
+                qualityIntervals[i] = intervals.get(i);
+            }
+            majorQuality = symbols.indexOf("maj");
+        }
+    }
+
+    /**
+     * Longest-prefix matcher over symbols, indexed by first character.
+     */
+    private static final class SymbolTable {
+
+        private static final int[] NONE = new int[0];
+
+        private final String[] symbols;
+        // candidates[c] holds the indexes of the symbols starting with c, longest first.
+        private final int[][] candidates = new int[MAX_FIRST_CHAR][];
+
+        SymbolTable(String[] symbols){
+            this.symbols = symbols;
+            List<List<Integer>> lists = new ArrayList<>();
+            for(int c = 0; c < MAX_FIRST_CHAR; c++){
+                lists.add(null);
+            }
+            for(int i = 0; i < symbols.length; i++){
+                char first = symbols[i].charAt(0);
+                if(first >= MAX_FIRST_CHAR){
+                    throw new MusicTheoryException("Unsupported chord symbol '" + symbols[i] + "'");
+                }
+                List<Integer> list = lists.get(first);
+                if(list == null){
+                    list = new ArrayList<>();
+                    lists.set(first, list);
+                }
+                int position = 0;
+                while(position < list.size() && symbols[list.get(position)].length() >= symbols[i].length()){
+                    position++;
+                }
+                list.add(position, i);
+            }
+            for(int c = 0; c < MAX_FIRST_CHAR; c++){
+                List<Integer> list = lists.get(c);
+                if(list == null){
+                    candidates[c] = NONE;
+                    continue;
+                }
+                candidates[c] = new int[list.size()];
+                for(int i = 0; i < list.size(); i++){
+                    candidates[c][i] = list.get(i);
+                }
+            }
+        }
+
+        // Returns the index of the longest symbol at text[start, end), or -1.
+        int match(String text, int start, int end){
+            if(start >= end){
+                return -1;
+            }
+            char first = text.charAt(start);
+            if(first >= MAX_FIRST_CHAR){
+                return -1;
+            }
+            for(int candidate : candidates[first]){
+                String symbol = symbols[candidate];
+                if(symbol.length() <= end - start && text.startsWith(symbol, start)){
+                    return candidate;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.kekstudio.musictheory;
+
+/**
+ * Ids of the built-in chord types (see MusicRegistry).
+ * Generating chords from an id (e.g. Note.chord(ChordType.MINOR7)) skips the lookup by name,
+ * custom chord types get their ids from MusicRegistry.chordId.
+ * @author Andy671
+ */
+public final class ChordType {
+
+    /** m */
+    public static final int MINOR = 0;
+    /** maj */
+    public static final int MAJOR = 1;
+    /** dim */
+    public static final int DIMINISHED = 2;
+    /** aug */
+    public static final int AUGMENTED = 3;
+    /** sus */
+    public static final int SUSPENDED4 = 4;
+    /** sus2 */
+    public static final int SUSPENDED2 = 5;
+    /** m2 */
+    public static final int MINOR_ADD2 = 6;
+    /** maj2 */
+    public static final int MAJOR_ADD2 = 7;
+    /** m6 */
+    public static final int MINOR6 = 8;
+    /** maj6 */
+    public static final int MAJOR6 = 9;
+    /** 7 */
+    public static final int DOMINANT7 = 10;
+    /** m7 */
+    public static final int MINOR7 = 11;
+    /** maj7 */
+    public static final int MAJOR7 = 12;
+    /** 7sus */
+    public static final int DOMINANT7_SUSPENDED4 = 13;
+    /** dim7 */
+    public static final int DIMINISHED7 = 14;
+    /** m7b5 */
+    public static final int HALF_DIMINISHED7 = 15;
+    /** mmaj7 */
+    public static final int MINOR_MAJOR7 = 16;
+    /** aug7 */
+    public static final int AUGMENTED7 = 17;
+    /** maj7b5 */
+    public static final int MAJOR7_FLAT5 = 18;
+    /** maj7#5 */
+    public static final int MAJOR7_SHARP5 = 19;
+
+    private ChordType(){
+    }
+
+    /**
+     * @param chordType the id of the chord type.
+     * @return the name of the chord type (e.g. m7).
+     */
+    public static String name(int chordType){
+        return MusicRegistry.chordType(chordType);
+    }
+}
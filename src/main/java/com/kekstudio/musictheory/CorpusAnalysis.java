@@ -0,0 +1,127 @@
+package com.kekstudio.musictheory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics of a corpus of songs, computed by CorpusAnalyzer.
+ * The histograms map Roman numerals (e.g. V7, bVII), chord types (e.g. m7) and n-grams of Roman numerals
+ * separated by spaces (e.g. "ii7 V7 Imaj7") to their counts, ordered from the most to the least frequent.
+ * @author Andy671
+ */
+public final class CorpusAnalysis {
+
+    private final int ngramLength;
+    private final long songCount;
+    private final long chordCount;
+    private final long diatonicChordCount;
+    private final Map<String, Long> romanNumerals;
+    private final Map<String, Long> chordTypes;
+    private final Map<String, Long> ngrams;
+
+    CorpusAnalysis(int ngramLength, long songCount, long chordCount, long diatonicChordCount,
+                   Map<String, long[]> romanNumerals, Map<String, long[]> chordTypes, Map<String, long[]> ngrams){
+        this.ngramLength = ngramLength;
+        this.songCount = songCount;
+        this.chordCount = chordCount;
+        this.diatonicChordCount = diatonicChordCount;
+        this.romanNumerals = histogram(romanNumerals);
+        this.chordTypes = histogram(chordTypes);
+        this.ngrams = histogram(ngrams);
+    }
+
+    /**
+     * @return the number of songs.
+     */
+    public long getSongCount(){
+        return songCount;
+    }
+
+    /**
+     * @return the number of chords of all songs.
+     */
+    public long getChordCount(){
+        return chordCount;
+    }
+
+    /**
+     * @return the number of chords built on the scale of their key (see Key.identifyTriad and Key.identifySeventh).
+     */
+    public long getDiatonicChordCount(){
+        return diatonicChordCount;
+    }
+
+    /**
+     * @return the number of Roman numerals of the n-grams.
+     */
+    public int getNgramLength(){
+        return ngramLength;
+    }
+
+    /**
+     * @return the counts of the Roman numerals, the most frequent first.
+     */
+    public Map<String, Long> getRomanNumeralHistogram(){
+        return romanNumerals;
+    }
+
+    /**
+     * @return the counts of the chord types, the most frequent first.
+     */
+    public Map<String, Long> getChordTypeHistogram(){
+        return chordTypes;
+    }
+
+    /**
+     * @return the counts of the n-grams, the most frequent first.
+     */
+    public Map<String, Long> getNgramHistogram(){
+        return ngrams;
+    }
+
+    /**
+     * Returns the count of an n-gram.
+     * @param romanNumerals the Roman numerals of the n-gram (e.g. ii7, V7, Imaj7).
+     * @return the number of times the Roman numerals follow each other in a song.
+     */
+    public long getNgramCount(String... romanNumerals){
+        if(romanNumerals.length != ngramLength){
+            throw new MusicTheoryException("Expected " + ngramLength + " Roman numerals, got " + romanNumerals.length);
+        }
+        StringBuilder ngram = new StringBuilder(8 * ngramLength);
+        for(int i = 0; i < romanNumerals.length; i++){
+            if(i > 0){
+                ngram.append(' ');
+            }
+            ngram.append(romanNumerals[i]);
+        }
+        Long count = ngrams.get(ngram.toString());
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public String toString(){
+        return "CorpusAnalysis[songs=" + songCount + ", chords=" + chordCount + ", romanNumerals=" + romanNumerals.size()
+                + ", chordTypes=" + chordTypes.size() + ", ngrams=" + ngrams.size() + "]";
+    }
+
+    private static Map<String, Long> histogram(Map<String, long[]> counts){
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(counts.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, long[]>>() {
+            @Override
+            public int compare(Map.Entry<String, long[]> entry, Map.Entry<String, long[]> otherEntry){
+                int order = Long.compare(otherEntry.getValue()[0], entry.getValue()[0]);
+                return order != 0 ? order : entry.getKey().compareTo(otherEntry.getKey());
+            }
+        });
+        Map<String, Long> histogram = new LinkedHashMap<>(entries.size() * 4 / 3 + 1);
+        for(Map.Entry<String, long[]> entry : entries){
+            histogram.put(entry.getKey(), entry.getValue()[0]);
+        }
+        return Collections.unmodifiableMap(histogram);
+    }
+}
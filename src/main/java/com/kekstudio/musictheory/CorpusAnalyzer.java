@@ -0,0 +1,296 @@
+package com.kekstudio.musictheory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Roman numeral analysis of a corpus of songs.
+ * Every chord of a song is named by its degree in the key of the song (e.g. V7, bVII, iiø7). Chords built
+ * on the key scale are found by comparing with Key.identifyTriad and Key.identifySeventh, the others by
+ * their root, with an accidental when the root is not in the scale. The analysis counts the Roman numerals,
+ * the chord types and the n-grams of Roman numerals (see CorpusAnalysis).
+ * The songs are read from an iterator in batches, and every batch is analyzed by an executor task
+ * into its own counters. The counters of the finished tasks are merged by the calling thread, so the
+ * tasks share no state, and only a few batches per processor are held at a time.
+ * @author Andy671
+ */
+public class CorpusAnalyzer {
+
+    private static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final int ngramLength;
+    private final int batchSize;
+
+    /**
+     * Initializes the analyzer counting pairs of successive Roman numerals.
+     */
+    public CorpusAnalyzer(){
+        this(2);
+    }
+
+    /**
+     * Initializes the analyzer.
+     * @param ngramLength the number of successive Roman numerals of the counted n-grams.
+     */
+    public CorpusAnalyzer(int ngramLength){
+        this(ngramLength, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Initializes the analyzer.
+     * @param ngramLength the number of successive Roman numerals of the counted n-grams.
+     * @param batchSize the number of songs analyzed by one task.
+     */
+    public CorpusAnalyzer(int ngramLength, int batchSize){
+        if(ngramLength < 1){
+            throw new MusicTheoryException("Wrong n-gram length: " + ngramLength);
+        }
+        if(batchSize < 1){
+            throw new MusicTheoryException("Wrong batch size: " + batchSize);
+        }
+        this.ngramLength = ngramLength;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the Roman numerals of chords in a key.
+     * @param key the key.
+     * @param chords the chords.
+     * @return the Roman numerals, in the same order.
+     */
+    public static String[] romanNumerals(Key key, Chord... chords){
+        KeyDegrees table = new KeyDegrees(key);
+        String[] romanNumerals = new String[chords.length];
+        for(int i = 0; i < chords.length; i++){
+            romanNumerals[i] = table.romanNumeral(chords[i]);
+        }
+        return romanNumerals;
+    }
+
+    /**
+     * Analyzes songs on virtual threads when the platform has them, on a fork-join pool otherwise.
+     * @param songs the songs.
+     * @return the analysis.
+     */
+    public CorpusAnalysis analyze(Iterable<Song> songs){
+        ExecutorService executor = newDefaultExecutor();
+        try{
+            return analyze(songs.iterator(), executor);
+        }finally{
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Analyzes songs with an executor.
+     * @param songs the songs.
+     * @param executor the executor running the batches of songs.
+     * @return the analysis.
+     */
+    public CorpusAnalysis analyze(Iterable<Song> songs, ExecutorService executor){
+        return analyze(songs.iterator(), executor);
+    }
+
+    /**
+     * Analyzes songs with an executor. The songs are read by the calling thread.
+     * @param songs the songs.
+     * @param executor the executor running the batches of songs.
+     * @return the analysis.
+     */
+    public CorpusAnalysis analyze(Iterator<Song> songs, ExecutorService executor){
+        int maxPending = 2 * Runtime.getRuntime().availableProcessors();
+        ArrayDeque<Future<Accumulator>> pending = new ArrayDeque<>(maxPending);
+        Accumulator total = new Accumulator(ngramLength);
+        try{
+            while(songs.hasNext()){
+                final List<Song> batch = new ArrayList<>(batchSize);
+                while(batch.size() < batchSize && songs.hasNext()){
+                    batch.add(songs.next());
+                }
+                pending.add(executor.submit(new Callable<Accumulator>() {
+                    @Override
+                    public Accumulator call() {
+                        Accumulator accumulator = new Accumulator(ngramLength);
+                        for(Song song : batch){
+                            accumulator.add(song);
+                        }
+                        return accumulator;
+                    }
+                }));
+                if(pending.size() >= maxPending){
+                    total.merge(pending.poll().get());
+                }
+            }
+            while(!pending.isEmpty()){
+                total.merge(pending.poll().get());
+            }
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new MusicTheoryException("Interrupted while analyzing songs", e);
+        }catch(ExecutionException e){
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MusicTheoryException("Failed to analyze songs", e.getCause());
+        }finally{
+            for(Future<Accumulator> future : pending){
+                future.cancel(true);
+            }
+        }
+        return total.toAnalysis();
+    }
+
+    /**
+     * @return the number of successive Roman numerals of the counted n-grams.
+     */
+    public int getNgramLength(){
+        return ngramLength;
+    }
+
+    /**
+     * @return the number of songs analyzed by one task.
+     */
+    public int getBatchSize(){
+        return batchSize;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor is looked up at run time, it is missing before Java 21 and on Android.
+    private static ExecutorService newDefaultExecutor(){
+        try{
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        }catch(ReflectiveOperationException e){
+            return new ForkJoinPool();
+        }
+    }
+
+    /**
+     * Song of a corpus: a key and the chords in that key.
+     */
+    public static final class Song {
+
+        private final Key key;
+        private final Chord[] chords;
+
+        /**
+         * @param key the key of the song.
+         * @param chords the chords of the song.
+         */
+        public Song(Key key, Chord... chords){
+            this.key = key;
+            this.chords = chords.clone();
+        }
+
+        /**
+         * @param progression the progression of the song.
+         */
+        public Song(Progression progression){
+            this(progression.getKey(), progression.getChords());
+        }
+
+        /**
+         * @return the key of the song.
+         */
+        public Key getKey(){
+            return key;
+        }
+
+        /**
+         * @return the chords of the song.
+         */
+        public Chord[] getChords(){
+            return chords.clone();
+        }
+    }
+
+    // Counters of one task. The counts are kept in one-element arrays, so counting allocates no Long.
+    private static final class Accumulator {
+
+        private final int ngramLength;
+        private final Map<String, long[]> romanNumerals = new HashMap<>();
+        private final Map<String, long[]> chordTypes = new HashMap<>();
+        private final Map<String, long[]> ngrams = new HashMap<>();
+        private final Map<String, KeyDegrees> keyTables = new HashMap<>();
+        private final StringBuilder ngram = new StringBuilder(32);
+        private long songCount;
+        private long chordCount;
+        private long diatonicChordCount;
+
+        Accumulator(int ngramLength){
+            this.ngramLength = ngramLength;
+        }
+
+        void add(Song song){
+            String keyName = song.key.getName() + ' ' + song.key.getType();
+            KeyDegrees table = keyTables.get(keyName);
+            if(table == null){
+                table = new KeyDegrees(song.key);
+                keyTables.put(keyName, table);
+            }
+
+            String[] numerals = new String[song.chords.length];
+            for(int i = 0; i < numerals.length; i++){
+                Chord chord = song.chords[i];
+                int diatonic = table.diatonicIndex(chord);
+                numerals[i] = table.romanNumeral(chord, diatonic);
+                count(romanNumerals, numerals[i], 1);
+                count(chordTypes, chord.getType(), 1);
+                if(diatonic != -1){
+                    diatonicChordCount++;
+                }
+            }
+            for(int start = 0; start + ngramLength <= numerals.length; start++){
+                ngram.setLength(0);
+                for(int i = start; i < start + ngramLength; i++){
+                    if(i > start){
+                        ngram.append(' ');
+                    }
+                    ngram.append(numerals[i]);
+                }
+                count(ngrams, ngram.toString(), 1);
+            }
+            songCount++;
+            chordCount += numerals.length;
+        }
+
+        void merge(Accumulator other){
+            merge(romanNumerals, other.romanNumerals);
+            merge(chordTypes, other.chordTypes);
+            merge(ngrams, other.ngrams);
+            songCount += other.songCount;
+            chordCount += other.chordCount;
+            diatonicChordCount += other.diatonicChordCount;
+        }
+
+        CorpusAnalysis toAnalysis(){
+            return new CorpusAnalysis(ngramLength, songCount, chordCount, diatonicChordCount,
+                                      romanNumerals, chordTypes, ngrams);
+        }
+
+        private static void merge(Map<String, long[]> counts, Map<String, long[]> otherCounts){
+            for(Map.Entry<String, long[]> entry : otherCounts.entrySet()){
+                count(counts, entry.getKey(), entry.getValue()[0]);
+            }
+        }
+
+        private static void count(Map<String, long[]> counts, String name, long count){
+            long[] current = counts.get(name);
+            if(current == null){
+                counts.put(name, new long[]{count});
+            }else{
+                current[0] += count;
+            }
+        }
+    }
+}
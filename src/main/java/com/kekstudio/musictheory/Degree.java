@@ -5,56 +5,47 @@ package com.kekstudio.musictheory;
  * @author Andy671
  */
 public class Degree {
-    private static final String REGEX_BASE_ROMAN = "^(?i)[" + Music.SHARP + Music.FLAT + "IV]*";
-    private static final String REGEX_CHORD_TYPE = "(?i)[^IV]*$";
-    private static final String REGEX_IN_KEY_CHORD_TYPE = "(?i)[^" + "ø" + "°" + "+" + "IV]*$";
     
     public static String toRomanNumeral(String baseRomanDegree, String chordType){
-        if(!Music.Chords.containsKey(chordType)){
+        int chordId = MusicRegistry.snapshot().chordId(chordType);
+        if(chordId == -1){
             throw new MusicTheoryException("Unknown chord type '" + chordType + "'");
         }
+        return toRomanNumeral(baseRomanDegree, chordId);
+    }
+
+    public static String toRomanNumeral(String baseRomanDegree, int chordType){
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        registry.checkedChordId(chordType);
         
         String romanNumeral;       
         
-        if(Music.ChordsMajor.containsKey(chordType)){ 
+        if(registry.chordMajor[chordType]){ 
             romanNumeral = baseRomanDegree;
-            romanNumeral += Music.ChordsMajor.get(chordType);
         }else{
             romanNumeral = baseRomanDegree.toLowerCase();
-            romanNumeral += Music.ChordsMinor.get(chordType);
         }
+        // Chords registered without Roman numeral suffix use their type.
+        String suffix = registry.chordSuffixes[chordType];
+        romanNumeral += suffix != null ? suffix : registry.chordTypes[chordType];
 
         return romanNumeral;
     }
 
     public static String toChordType(String romanNumeral){
-        String baseRoman = romanNumeral.replaceAll(REGEX_CHORD_TYPE, "");
-        String romanChordType = romanNumeral.replaceAll(REGEX_BASE_ROMAN, "");
-        String chordType;
-        if(baseRoman.toUpperCase().equals(baseRoman)){  // major
-            chordType = Music.ChordsMajorInverse.get(romanChordType);
-        }else{                                          // minor
-            chordType = Music.ChordsMinorInverse.get(romanChordType);
-        }
-        return chordType;
+        return RomanNumeral.parse(romanNumeral).getChordType();
     }
 
     public static String toBaseRoman(String romanNumeral){
-        String baseRoman = romanNumeral.replaceAll(REGEX_CHORD_TYPE, "");
-        return baseRoman;
+        return RomanNumeral.parse(romanNumeral).getBaseRoman();
     }
     
     public static String toInKeyRoman(String romanNumeral){
-        String baseRoman = romanNumeral.replaceAll(REGEX_IN_KEY_CHORD_TYPE, "");
-        return baseRoman;
+        return RomanNumeral.parse(romanNumeral).getInKeyRoman();
     }
     
     public static String toBaseRomanCaps(String romanNumeral){
-        String baseRoman = romanNumeral.replaceAll(REGEX_CHORD_TYPE, "");
-        if(baseRoman.charAt(0)==Music.FLAT){
-            return baseRoman.substring(0,1) + baseRoman.substring(1).toUpperCase();
-        }
-        return baseRoman.toUpperCase();
+        return RomanNumeral.parse(romanNumeral).getBaseRomanCaps();
     }
     
 }
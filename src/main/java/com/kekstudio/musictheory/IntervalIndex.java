@@ -0,0 +1,153 @@
+package com.kekstudio.musictheory;
+
+/**
+ * Content-addressed index of chord and scale types.
+ * A set of intervals is reduced to a signature with one bit per known interval,
+ * which is then looked up in constant time, independently of the array instance.
+ * The tables are built on first use from MusicRegistry, and rebuilt when types are registered.
+ * @author Andy671
+ */
+public final class IntervalIndex {
+
+    /**
+     * The signature of an interval set containing an unknown interval symbol.
+     */
+    public static final long UNKNOWN = -1L;
+
+    private static volatile Tables tables;
+
+    private IntervalIndex(){
+    }
+
+    /**
+     * Computes the signature of a set of intervals. The order of the intervals does not matter.
+     * @param intervals an array of interval symbols.
+     * @return the signature, or UNKNOWN if one of the symbols is unknown.
+     */
+    public static long signature(String[] intervals){
+        long signature = 0L;
+        for(String interval : intervals){
+            int intervalId = SpellingTable.intervalId(interval);
+            if(intervalId == -1){
+                return UNKNOWN;
+            }
+            signature |= bit(intervalId);
+        }
+        return signature;
+    }
+
+    /**
+     * @param intervalId the id of an interval.
+     * @return the signature of the single interval.
+     */
+    static long bit(int intervalId){
+        return 1L << intervalId;
+    }
+
+    /**
+     * Looks up the chord type with the given intervals.
+     * @param intervals an array of interval symbols.
+     * @return the chord type (see MusicRegistry), or null if there is none.
+     */
+    public static String chordType(String[] intervals){
+        return chordType(signature(intervals));
+    }
+
+    /**
+     * Looks up the chord type with the given interval signature.
+     * @param signature the interval signature.
+     * @return the chord type (see MusicRegistry), or null if there is none.
+     */
+    public static String chordType(long signature){
+        return tables().chords.get(signature);
+    }
+
+    /**
+     * Looks up the scale type with the given intervals.
+     * @param intervals an array of interval symbols.
+     * @return the scale type (see MusicRegistry), or null if there is none.
+     */
+    public static String scaleType(String[] intervals){
+        return scaleType(signature(intervals));
+    }
+
+    /**
+     * Looks up the scale type with the given interval signature.
+     * @param signature the interval signature.
+     * @return the scale type (see MusicRegistry), or null if there is none.
+     */
+    public static String scaleType(long signature){
+        return tables().scales.get(signature);
+    }
+
+    private static Tables tables(){
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        Tables current = tables;
+        if(current == null || current.registry != registry){
+            current = new Tables(registry);
+            tables = current;
+        }
+        return current;
+    }
+
+    private static final class Tables {
+
+        private final MusicRegistry.Snapshot registry;
+        private final SignatureTable chords;
+        private final SignatureTable scales;
+
+        Tables(MusicRegistry.Snapshot registry){
+            this.registry = registry;
+            chords = new SignatureTable(registry.chordTypes, registry.chordIntervals);
+            scales = new SignatureTable(registry.scaleTypes, registry.scaleIntervals);
+        }
+    }
+
+    /**
+     * Open addressing hash table from interval signatures to type names.
+     */
+    private static final class SignatureTable {
+
+        private final long[] signatures;
+        private final String[] types;
+        private final int mask;
+
+        SignatureTable(String[] typeNames, String[][] typeIntervals){
+            int capacity = Integer.highestOneBit(Math.max(typeNames.length, 1) * 4);
+            signatures = new long[capacity];
+            types = new String[capacity];
+            mask = capacity - 1;
+
+            for(int type = 0; type < typeNames.length; type++){
+                long signature = signature(typeIntervals[type]);
+                int slot = slot(signature);
+                while(types[slot] != null && signatures[slot] != signature){
+                    slot = (slot + 1) & mask;
+                }
+                if(types[slot] == null){
+                    signatures[slot] = signature;
+                    types[slot] = typeNames[type];
+                }
+            }
+        }
+
+        String get(long signature){
+            if(signature == UNKNOWN){
+                return null;
+            }
+            int slot = slot(signature);
+            while(types[slot] != null){
+                if(signatures[slot] == signature){
+                    return types[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private int slot(long signature){
+            long hash = signature * 0x9E3779B97F4A7C15L;
+            return (int) (hash >>> 32) & mask;
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.kekstudio.musictheory;
 
-import java.util.Arrays;
-
 /**
  * Music Key.
  * @author Andy671
@@ -10,11 +8,13 @@ public class Key implements Comparable<Key> {
     
     private Note note;
     private String scaleKeyType;
+    private int scaleId;
     private String name;
     private Scale scale;
+    private TheoryCache cache;
     
     /**
-     * Initializes the key with a name and a quality. Automatic alteration is enabled(based on Music.ScaleAlterations).
+     * Initializes the key with a name and a quality. Automatic alteration is enabled(based on Music.ScaleAlterations and MusicRegistry).
      * If you want to set custom alteration - use constructor with autoAlteration == false.
      * @param noteName the key note.
      * @param scaleKeyType
@@ -27,12 +27,34 @@ public class Key implements Comparable<Key> {
      * Initializes the key with a name and a quality. 
      * @param noteName the key note.
      * @param scaleKeyType
-     * @param autoAlteration enable alteration based on Music.ScaleAlterations.
+     * @param autoAlteration enable alteration based on Music.ScaleAlterations and MusicRegistry.
      */
     public Key(String noteName, String scaleKeyType, boolean autoAlteration){
+        this(noteName, scaleId(scaleKeyType), autoAlteration);
+    }
+    
+    /**
+     * Initializes the key with a name and a quality id, with automatic alteration.
+     * @param noteName the key note.
+     * @param scaleKeyType the id of the quality of the key (see ScaleType).
+     */
+    public Key(String noteName, int scaleKeyType){
+        this(noteName, scaleKeyType, true);
+    }
+    
+    /**
+     * Initializes the key with a name and a quality id. 
+     * @param noteName the key note.
+     * @param scaleKeyType the id of the quality of the key (see ScaleType).
+     * @param autoAlteration enable alteration based on Music.ScaleAlterations and MusicRegistry.
+     */
+    public Key(String noteName, int scaleKeyType, boolean autoAlteration){
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        registry.checkedScaleId(scaleKeyType);
         if(autoAlteration && noteName.length() > 1){
-            if(!Music.ScaleAlterations.containsKey(scaleKeyType)){
-                throw new MusicTheoryException("Unknown key/scale type name '" + scaleKeyType + "'");
+            String[] keyNotes = registry.scaleAlterations[scaleKeyType];
+            if(keyNotes == null){
+                throw new MusicTheoryException("Unknown key/scale type name '" + registry.scaleTypes[scaleKeyType] + "'");
             }
             
             String letter = noteName.substring(0,1);
@@ -55,9 +77,9 @@ public class Key implements Comparable<Key> {
                     throw new MusicTheoryException("Wrong note name '" + noteName + "'");
             }
             
-            noteName = Music.ScaleAlterations.get(scaleKeyType)[index];
+            noteName = keyNotes[index];
         }
-        init(new Note(noteName), scaleKeyType);
+        init(Note.of(noteName), registry, scaleKeyType);
     }
     
     /**
@@ -66,14 +88,69 @@ public class Key implements Comparable<Key> {
      * @param scaleKeyType the quality of the key .
      */
     public Key(Note note, String scaleKeyType){
-        init(note, scaleKeyType);
+        this(note, scaleId(scaleKeyType));
+    }
+    
+    /**
+     * Initializes the key with a note and a quality id.
+     * @param note the key note.
+     * @param scaleKeyType the id of the quality of the key (see ScaleType).
+     */
+    public Key(Note note, int scaleKeyType){
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        init(note, registry, registry.checkedScaleId(scaleKeyType));
     }
 
-    private void init(Note note, String scaleKeyType){
-        this.note = note;
+    /**
+     * Initializes the key with automatic alteration without throwing, for untrusted input.
+     * @param noteName the key note.
+     * @param scaleKeyType the quality of the key.
+     * @return the key, or the error code.
+     */
+    public static ParseResult<Key> tryParse(String noteName, String scaleKeyType){
+        int error = Note.nameError(noteName);
+        if(error != ParseResult.OK){
+            return ParseResult.failure(error);
+        }
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        int scaleId = registry.scaleId(scaleKeyType);
+        if(scaleId == -1 || (noteName.length() > 1 && registry.scaleAlterations[scaleId] == null)){
+            return ParseResult.failure(ParseResult.UNKNOWN_SCALE_TYPE);
+        }
+        return ParseResult.success(new Key(noteName, scaleId, true));
+    }
+
+    private Key(Key key){
+        this.note = key.note;
+        this.scaleKeyType = key.scaleKeyType;
+        this.scaleId = key.scaleId;
+        this.name = key.name;
+        this.scale = key.scale.copy();
+        this.cache = key.cache;
+    }
+
+    private static int scaleId(String scaleKeyType){
+        int scaleId = MusicRegistry.snapshot().scaleId(scaleKeyType);
+        if(scaleId == -1){
+            throw new MusicTheoryException("Unknown key/scale type name '" + scaleKeyType + "'");
+        }
+        return scaleId;
+    }
+
+    private void init(Note note, MusicRegistry.Snapshot registry, int scaleId){
+        this.note = note.share();
+        this.scaleKeyType = registry.scaleTypes[scaleId];
+        this.scaleId = scaleId;
         this.name = note.getName() + " " + scaleKeyType;
-        this.scaleKeyType = scaleKeyType;
-        scale = note.scale(scaleKeyType);
+        scale = note.scale(scaleId);
+    }
+    
+    /**
+     * Returns a copy of the key, with a copy of its scale and the same cache.
+     * @return the copy.
+     */
+    public Key copy(){
+        return new Key(this);
     }
     
     /**
@@ -84,6 +161,21 @@ public class Key implements Comparable<Key> {
         getScale().setOctave(octave);
     }
 
+    /**
+     * Sets the cache used for the chords of this key. 
+     * @param cache the cache, or null to generate a new chord on every call.
+     */
+    public void setCache(TheoryCache cache){
+        this.cache = cache;
+    }
+    
+    /**
+     * @return the cache used for the chords of this key, or null.
+     */
+    public TheoryCache getCache(){
+        return cache;
+    }
+
     /**
      * Initializes the chord with a degree and a type.
      * @param degree degree of the chord (e.g. bV, I, IV).
@@ -91,38 +183,115 @@ public class Key implements Comparable<Key> {
      * @return the chord.
      */
     public Chord chord(String degree, String type){
+        long startNanos = TheoryMetrics.ENABLED ? System.nanoTime() : 0L;
+        Chord chord = cache != null ? cache.chord(this, degree, type) : createChord(degree, type);
+        if(TheoryMetrics.ENABLED){
+            TheoryMetrics.record(TheoryMetrics.KEY_CHORD, startNanos);
+        }
+        return chord;
+    }
+    
+    Chord createChord(String degree, String type){
         String degreeSymbol = degree;
         char flatOrSharp = degree.charAt(0);
+        int accidental = 0;
 
         if (flatOrSharp == Music.FLAT || flatOrSharp == Music.SHARP) {
           degreeSymbol = degree.substring(1);
+          accidental = flatOrSharp == Music.FLAT ? -1 : 1;
         }
 
         if(!Music.Degrees.contains(degreeSymbol)){
             throw new MusicTheoryException("Unknown degree symbol name '" + degreeSymbol + "'");
         }
-        int scaleIndex = Music.Degrees.indexOf(degreeSymbol);
-        Note rootNote = this.scale.notes[scaleIndex].copy();
+        return createChord(accidental, Music.Degrees.indexOf(degreeSymbol), degree, type);
+    }
+    
+    Chord createChord(int accidental, int scaleIndex, String degree, String type){
+        Note rootNote = this.scale.notes[scaleIndex];
         
-        if (flatOrSharp == Music.FLAT) {
-          Note.semitoneDown(rootNote);
-        } else if (flatOrSharp == Music.SHARP) {
-          Note.semitoneUp(rootNote);
+        if (accidental < 0) {
+          rootNote = rootNote.lowered();
+        } else if (accidental > 0) {
+          rootNote = rootNote.raised();
         }
         
-        Chord returnChord = rootNote.chord(type);
-        returnChord.setRomanNumeral(Degree.toRomanNumeral(degree, type));
+        int chordId = MusicRegistry.snapshot().chordId(type);
+        if(chordId == -1){
+            throw new MusicTheoryException("Unknown chord type name '" + type + "'");
+        }
+        Chord returnChord = rootNote.chord(chordId);
+        returnChord.setRomanNumeral(Degree.toRomanNumeral(degree, chordId));
         
         return returnChord;
     } 
     
+    /**
+     * Returns the chord of a parsed Roman numeral, without parsing the degree again.
+     */
+    Chord chord(RomanNumeral romanNumeral){
+        long startNanos = TheoryMetrics.ENABLED ? System.nanoTime() : 0L;
+        String type = romanNumeral.getChordType();
+        if(type == null){
+            throw new MusicTheoryException("Unknown chord suffix '" + romanNumeral.getSuffix() + "' in '" + romanNumeral + "'");
+        }
+        Chord chord = cache != null
+                      ? cache.chord(this, romanNumeral.getBaseRomanCaps(), type)
+                      : createChord(romanNumeral.getAccidental(), romanNumeral.getDegree(), romanNumeral.getBaseRomanCaps(), type);
+        if(TheoryMetrics.ENABLED){
+            TheoryMetrics.record(TheoryMetrics.KEY_CHORD, startNanos);
+        }
+        return chord;
+    }
+    
     /**
      * Initializes the chord with a traditional degree (case-sensitive).
      * @param traditionalDegree traditional degree of the chord (e.g. iv, V, i7).
      * @return
      */
     public Chord chord(String traditionalDegree){
-        return chord(Degree.toBaseRomanCaps(traditionalDegree), Degree.toChordType(traditionalDegree));
+        return chord(RomanNumeral.parse(traditionalDegree));
+    }
+    
+    /**
+     * Initializes the chord with a degree and a type without throwing, for untrusted input.
+     * @param degree degree of the chord (e.g. bV, I, IV).
+     * @param type type of the chord.
+     * @return the chord, or the error code.
+     */
+    public ParseResult<Chord> tryChord(String degree, String type){
+        if(degree == null || degree.isEmpty()){
+            return ParseResult.failure(ParseResult.EMPTY_INPUT);
+        }
+        char flatOrSharp = degree.charAt(0);
+        int offset = flatOrSharp == Music.FLAT || flatOrSharp == Music.SHARP ? 1 : 0;
+        int scaleIndex = Music.Degrees.indexOf(degree.substring(offset));
+        if(scaleIndex == -1 || scaleIndex >= scale.size()){
+            return ParseResult.failure(ParseResult.WRONG_DEGREE);
+        }
+        if(MusicRegistry.snapshot().chordId(type) == -1){
+            return ParseResult.failure(ParseResult.UNKNOWN_CHORD_TYPE);
+        }
+        return ParseResult.success(chord(degree, type));
+    }
+    
+    /**
+     * Initializes the chord with a traditional degree (case-sensitive) without throwing, for untrusted input.
+     * @param traditionalDegree traditional degree of the chord (e.g. iv, V, i7).
+     * @return the chord, or the error code.
+     */
+    public ParseResult<Chord> tryChord(String traditionalDegree){
+        if(traditionalDegree == null || traditionalDegree.isEmpty()){
+            return ParseResult.failure(ParseResult.EMPTY_INPUT);
+        }
+        RomanNumeral romanNumeral = RomanNumeral.tryParse(traditionalDegree, 0, traditionalDegree.length());
+        if(romanNumeral == null || romanNumeral.getDegree() >= scale.size()){
+            return ParseResult.failure(ParseResult.WRONG_DEGREE);
+        }
+        if(romanNumeral.getChordType() == null){
+            return ParseResult.failure(ParseResult.UNKNOWN_CHORD_SUFFIX);
+        }
+        return ParseResult.success(chord(romanNumeral));
     }
     
     /**
@@ -150,19 +319,20 @@ public class Key implements Comparable<Key> {
     }
     
     private Chord identifyChord(int[] noteIndexes){
-        String[] intervalStrings = new String[noteIndexes.length-1];
+        long signature = 0L;
         for(int i = 0; i < noteIndexes.length-1 ; i++){
-            Interval tempInterval = identifyInterval(noteIndexes[0], noteIndexes[i + 1]);
-            intervalStrings[i] = tempInterval.toString();
-        }
-        String chordType = "";
-        for(String[] key : Music.ChordsInverse.keySet()){
-            if(Arrays.equals(intervalStrings, key)){
-                chordType = Music.ChordsInverse.get(key);
+            int intervalId = identifyInterval(noteIndexes[0], noteIndexes[i + 1]);
+            if(intervalId == -1){
+                signature = IntervalIndex.UNKNOWN;
+                break;
             }
+            signature |= IntervalIndex.bit(intervalId);
         }
+        String chordType = IntervalIndex.chordType(signature);
+        if(chordType == null)
+            chordType = "";
         
-        Chord chord = scale.getNotes()[noteIndexes[0]].chord(chordType);
+        Chord chord = scale.notes[noteIndexes[0]].chord(chordType);
         String adding = "";
         
         if(noteIndexes.length == 4)
@@ -175,15 +345,15 @@ public class Key implements Comparable<Key> {
         return chord;
     }
     
-    private Interval identifyInterval(int firstNoteIndex, int secondNoteIndex){
+    private int identifyInterval(int firstNoteIndex, int secondNoteIndex){
         int degree = Math.abs(firstNoteIndex - secondNoteIndex);
         int octaves = secondNoteIndex / 7;
         
-        int midiValue = scale.getNotes()[secondNoteIndex % 7].getMidiValue() + octaves*12;
+        int midiValue = scale.notes[secondNoteIndex % 7].getMidiValue() + octaves*12;
       
-        int steps = Math.abs(scale.getNotes()[firstNoteIndex].getMidiValue() - midiValue);
+        int steps = Math.abs(scale.notes[firstNoteIndex].getMidiValue() - midiValue);
         
-        return new Interval(degree, steps);
+        return SpellingTable.intervalId(degree, steps);
     }
     
     /**
@@ -191,7 +361,7 @@ public class Key implements Comparable<Key> {
      * @return name of the key.
      */
     public String getName(){
-        return getScale().getRoot().getName();
+        return getScale().notes[0].getName();
     }
     
     /**
@@ -210,6 +380,13 @@ public class Key implements Comparable<Key> {
         return scaleKeyType;
     }
     
+    /**
+     * @return the id of the quality of the key (see ScaleType).
+     */
+    public int getTypeId(){
+        return scaleId;
+    }
+    
     /**
      * Returns the octave number of the key scale.
      * @return octave number.
@@ -225,7 +402,16 @@ public class Key implements Comparable<Key> {
 
     @Override
     public String toString() {
-        return name + " key";
+        return appendTo(new StringBuilder(name.length() + 4)).toString();
+    }
+    
+    /**
+     * Appends the key in the format of toString (e.g. C major key).
+     * @param builder the builder to append to.
+     * @return the builder.
+     */
+    public StringBuilder appendTo(StringBuilder builder){
+        return builder.append(name).append(" key");
     }
 
 }
@@ -0,0 +1,151 @@
+package com.kekstudio.musictheory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Degrees of chords in a key, used by CorpusAnalyzer and NgramIndex.
+ * Chords built on the key scale are found by comparing with Key.identifyTriad and Key.identifySeventh,
+ * the others by their root, with an accidental when the root is not in the scale.
+ * A degree is coded as degree + 7 * (accidental + 1), from 0 (bI) to 20 (#VII).
+ * @author Andy671
+ */
+final class KeyDegrees {
+
+    static final int DEGREE_CODES = 21;
+
+    // Degree and accidental of the pitch classes above the tonic, for roots not spelled with the scale letters.
+    private static final int[] CHROMATIC_DEGREES = {0, 1, 1, 2, 2, 3, 3, 4, 5, 5, 6, 6};
+    private static final int[] CHROMATIC_ACCIDENTALS = {0, -1, 0, -1, 0, 0, 1, 0, -1, 0, -1, 0};
+    private static final String LETTERS = "CDEFGAB";
+
+    private final int tonicLetter;
+    private final int tonicPitchClass;
+    private final int[] scalePitchClasses;
+    private final int[] diatonicRoots;
+    private final int[] diatonicMasks;
+    private final int[] diatonicDegrees;
+
+    KeyDegrees(Key key){
+        Note[] notes = key.getScale().notes;
+        tonicLetter = LETTERS.indexOf(notes[0].getName().charAt(0));
+        tonicPitchClass = pitchClass(notes[0]);
+
+        // Degrees are spelled with the letters of seven-note scales only, identifyTriad needs them too.
+        if(notes.length != LETTERS.length()){
+            scalePitchClasses = null;
+            diatonicRoots = diatonicMasks = diatonicDegrees = new int[0];
+            return;
+        }
+        scalePitchClasses = new int[notes.length];
+        for(int i = 0; i < notes.length; i++){
+            scalePitchClasses[i] = pitchClass(notes[i]);
+        }
+        List<Chord> diatonic = new ArrayList<>(2 * notes.length);
+        List<Integer> degrees = new ArrayList<>(2 * notes.length);
+        for(int degree = 0; degree < notes.length; degree++){
+            try{
+                diatonic.add(key.identifyTriad(degree));
+                degrees.add(degree);
+                diatonic.add(key.identifySeventh(degree));
+                degrees.add(degree);
+            }catch(MusicTheoryException e){
+                // Custom scales can have chords without registered type, they are spelled by their root.
+            }
+        }
+        diatonicRoots = new int[diatonic.size()];
+        diatonicMasks = new int[diatonic.size()];
+        diatonicDegrees = new int[diatonic.size()];
+        for(int i = 0; i < diatonicRoots.length; i++){
+            Chord chord = diatonic.get(i);
+            diatonicRoots[i] = pitchClass(chord.rootNote());
+            diatonicMasks[i] = PitchClassIndex.pitchClassMask(chord.notes);
+            diatonicDegrees[i] = degrees.get(i);
+        }
+    }
+
+    /**
+     * Returns the index of the diatonic chord with the same root and pitch classes as a chord.
+     * @return the index, or -1 if the chord is not diatonic.
+     */
+    int diatonicIndex(Chord chord){
+        int root = pitchClass(chord.rootNote());
+        int mask = PitchClassIndex.pitchClassMask(chord.notes);
+        for(int i = 0; i < diatonicRoots.length; i++){
+            if(diatonicRoots[i] == root && diatonicMasks[i] == mask){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    int degreeCode(Chord chord){
+        return degreeCode(chord, diatonicIndex(chord));
+    }
+
+    /**
+     * Returns the coded degree of a chord.
+     * @param diatonic the index of the diatonic chord (see diatonicIndex).
+     */
+    int degreeCode(Chord chord, int diatonic){
+        if(diatonic != -1){
+            return diatonicDegrees[diatonic] + 7;
+        }
+        Note root = chord.rootNote();
+        int rootPitchClass = pitchClass(root);
+        int letter = LETTERS.indexOf(root.getName().charAt(0));
+        if(scalePitchClasses != null && letter != -1){
+            int degree = (letter - tonicLetter + 7) % 7;
+            int accidental = (rootPitchClass - scalePitchClasses[degree] + 18) % 12 - 6;
+            if(accidental >= -1 && accidental <= 1){
+                return degreeCode(degree, accidental);
+            }
+        }
+        int steps = (rootPitchClass - tonicPitchClass + 12) % 12;
+        return degreeCode(CHROMATIC_DEGREES[steps], CHROMATIC_ACCIDENTALS[steps]);
+    }
+
+    String romanNumeral(Chord chord){
+        return romanNumeral(chord, diatonicIndex(chord));
+    }
+
+    /**
+     * Returns the Roman numeral of a chord (e.g. V7, bVII).
+     * @param diatonic the index of the diatonic chord (see diatonicIndex).
+     */
+    String romanNumeral(Chord chord, int diatonic){
+        int code = degreeCode(chord, diatonic);
+        String base = Music.Degrees.get(degree(code));
+        if(accidental(code) != 0){
+            base = (accidental(code) < 0 ? Music.FLAT : Music.SHARP) + base;
+        }
+        String type = chord.getType();
+        int chordId = MusicRegistry.snapshot().chordId(type);
+        if(chordId != -1){
+            return Degree.toRomanNumeral(base, chordId);
+        }
+        // Types without registered Roman numeral (e.g. from ChordSymbol) are minor with a minor third only.
+        int root = pitchClass(chord.rootNote());
+        int mask = PitchClassIndex.pitchClassMask(chord.notes);
+        int relativeMask = (mask >>> root) | (mask << (12 - root));
+        boolean minor = (relativeMask & (1 << 3)) != 0 && (relativeMask & (1 << 4)) == 0;
+        return (minor ? base.toLowerCase() : base) + type;
+    }
+
+    static int degreeCode(int degree, int accidental){
+        return degree + 7 * (accidental + 1);
+    }
+
+    static int degree(int degreeCode){
+        return degreeCode % 7;
+    }
+
+    static int accidental(int degreeCode){
+        return degreeCode / 7 - 1;
+    }
+
+    private static int pitchClass(Note note){
+        int pitchClass = note.getMidiValue() % 12;
+        return pitchClass < 0 ? pitchClass + 12 : pitchClass;
+    }
+}
@@ -0,0 +1,273 @@
+package com.kekstudio.musictheory;
+
+/**
+ * Streaming key estimation.
+ * Keeps an exponentially decayed pitch class histogram of incoming notes and correlates it
+ * with Krumhansl-Kessler key profiles, one per mode of Music.Scales, to report the most likely key.
+ * Each note costs O(12 * modes) and allocates nothing. Not thread-safe.
+ * @author Andy671
+ */
+public class KeyFinder {
+
+    /**
+     * The default decay applied to the histogram on every note.
+     */
+    public static final double DEFAULT_DECAY = 0.97;
+
+    private static final int PITCH_CLASSES = 12;
+    private static final double RENORMALIZE_THRESHOLD = 1e100;
+
+    private static final double[] MAJOR_PROFILE = {6.35, 2.23, 3.48, 2.33, 4.38, 4.09, 2.52, 5.19, 2.39, 3.66, 2.29, 2.88};
+    private static final double[] MINOR_PROFILE = {6.33, 2.68, 3.52, 5.38, 2.60, 3.53, 2.54, 4.75, 3.98, 2.69, 3.34, 3.17};
+    private static final int[] MAJOR_STEPS = {0, 2, 4, 5, 7, 9, 11};
+    private static final int[] MINOR_STEPS = {0, 2, 3, 5, 7, 8, 10};
+
+    private static final String[] MODES;
+    private static final double[] PROFILE_SUMS;
+    private static final double[] PROFILE_DEVIATIONS;
+    // CONTRIBUTIONS[pitchClass][mode * 12 + root] is the profile weight of pitchClass in that key.
+    private static final double[][] CONTRIBUTIONS;
+
+    static{
+        int modeCount = 0;
+        for(String scaleType : Music.Scales.keySet()){
+            if(Music.ScaleAlterations.containsKey(scaleType) && Music.Scales.get(scaleType).length == 6){
+                modeCount++;
+            }
+        }
+
+        MODES = new String[modeCount];
+        PROFILE_SUMS = new double[modeCount];
+        PROFILE_DEVIATIONS = new double[modeCount];
+        CONTRIBUTIONS = new double[PITCH_CLASSES][modeCount * PITCH_CLASSES];
+
+        int mode = 0;
+        for(String scaleType : Music.Scales.keySet()){
+            if(!Music.ScaleAlterations.containsKey(scaleType) || Music.Scales.get(scaleType).length != 6){
+                continue;
+            }
+            double[] profile = profile(Music.Scales.get(scaleType));
+
+            double sum = 0, sumOfSquares = 0;
+            for(double weight : profile){
+                sum += weight;
+                sumOfSquares += weight * weight;
+            }
+            MODES[mode] = scaleType;
+            PROFILE_SUMS[mode] = sum;
+            PROFILE_DEVIATIONS[mode] = Math.sqrt(PITCH_CLASSES * sumOfSquares - sum * sum);
+
+            for(int pitchClass = 0; pitchClass < PITCH_CLASSES; pitchClass++){
+                for(int root = 0; root < PITCH_CLASSES; root++){
+                    CONTRIBUTIONS[pitchClass][mode * PITCH_CLASSES + root] =
+                            profile[(pitchClass - root + PITCH_CLASSES) % PITCH_CLASSES];
+                }
+            }
+            mode++;
+        }
+    }
+
+    private final double decay;
+    private final double[] histogram = new double[PITCH_CLASSES];
+    private final double[] products = new double[MODES.length * PITCH_CLASSES];
+    private final Key[] keys = new Key[MODES.length * PITCH_CLASSES];
+    private double weight;
+    private double sum;
+    private double sumOfSquares;
+
+    private boolean dirty;
+    private int bestKey;
+    private double bestCorrelation;
+
+    /**
+     * Initializes the key finder with the default decay.
+     */
+    public KeyFinder(){
+        this(DEFAULT_DECAY);
+    }
+
+    /**
+     * Initializes the key finder.
+     * @param decay the factor applied to the weight of all previous notes on every note, in (0, 1].
+     */
+    public KeyFinder(double decay){
+        if(!(decay > 0 && decay <= 1)){
+            throw new MusicTheoryException("Decay out of range (0, 1]: " + decay);
+        }
+        this.decay = decay;
+        reset();
+    }
+
+    /**
+     * Forgets all notes.
+     */
+    public void reset(){
+        for(int i = 0; i < histogram.length; i++){
+            histogram[i] = 0;
+        }
+        for(int i = 0; i < products.length; i++){
+            products[i] = 0;
+        }
+        weight = 1;
+        sum = 0;
+        sumOfSquares = 0;
+        dirty = false;
+        bestKey = -1;
+        bestCorrelation = 0;
+    }
+
+    /**
+     * Adds a note-on event.
+     * @param midiValue the midi value of the note.
+     */
+    public void noteOn(int midiValue){
+        noteOn(midiValue, 1);
+    }
+
+    /**
+     * Adds a note-on event with a custom weight (e.g. velocity or duration).
+     * @param midiValue the midi value of the note.
+     * @param noteWeight the weight of the note.
+     */
+    public void noteOn(int midiValue, double noteWeight){
+        int pitchClass = midiValue % PITCH_CLASSES;
+        if(pitchClass < 0){
+            pitchClass += PITCH_CLASSES;
+        }
+        double increment = weight * noteWeight;
+
+        double previous = histogram[pitchClass];
+        histogram[pitchClass] = previous + increment;
+        sum += increment;
+        sumOfSquares += 2 * previous * increment + increment * increment;
+
+        double[] contribution = CONTRIBUTIONS[pitchClass];
+        for(int i = 0; i < products.length; i++){
+            products[i] += increment * contribution[i];
+        }
+
+        // Instead of decaying every previous note, the weight of the next notes grows.
+        weight /= decay;
+        if(weight > RENORMALIZE_THRESHOLD){
+            renormalize();
+        }
+        dirty = true;
+    }
+
+    /**
+     * Returns the most likely key of the notes so far.
+     * @return a new key, or null if there were no notes.
+     */
+    public Key getKey(){
+        update();
+        if(bestKey == -1){
+            return null;
+        }
+        if(keys[bestKey] == null){
+            String mode = MODES[bestKey / PITCH_CLASSES];
+            String root = Music.ScaleAlterations.get(mode)[bestKey % PITCH_CLASSES];
+            keys[bestKey] = new Key(root, mode, false);
+        }
+        return keys[bestKey].copy();
+    }
+
+    /**
+     * Returns the correlation between the notes so far and the profile of the most likely key.
+     * @return the confidence, from -1 to 1.
+     */
+    public double getConfidence(){
+        update();
+        return bestCorrelation;
+    }
+
+    /**
+     * Returns the correlation between the notes so far and the profile of a key.
+     * @param rootPitchClass the pitch class of the key note, from 0 (C) to 11.
+     * @param scaleKeyType the type of the key (e.g. major, dorian).
+     * @return the correlation, from -1 to 1.
+     */
+    public double getCorrelation(int rootPitchClass, String scaleKeyType){
+        checkPitchClass(rootPitchClass);
+        for(int mode = 0; mode < MODES.length; mode++){
+            if(MODES[mode].equals(scaleKeyType)){
+                return correlation(mode * PITCH_CLASSES + rootPitchClass);
+            }
+        }
+        throw new MusicTheoryException("Unknown key/scale type name '" + scaleKeyType + "'");
+    }
+
+    private static void checkPitchClass(int pitchClass){
+        if(pitchClass < 0 || pitchClass >= PITCH_CLASSES){
+            throw new MusicTheoryException("Wrong pitch class: " + pitchClass);
+        }
+    }
+
+    private void update(){
+        if(!dirty){
+            return;
+        }
+        bestKey = -1;
+        bestCorrelation = -1;
+        for(int i = 0; i < products.length; i++){
+            double correlation = correlation(i);
+            if(correlation > bestCorrelation){
+                bestCorrelation = correlation;
+                bestKey = i;
+            }
+        }
+        dirty = false;
+    }
+
+    private double correlation(int key){
+        int mode = key / PITCH_CLASSES;
+        double deviation = Math.sqrt(PITCH_CLASSES * sumOfSquares - sum * sum);
+        if(deviation == 0){
+            return 0;
+        }
+        return (PITCH_CLASSES * products[key] - sum * PROFILE_SUMS[mode]) / (deviation * PROFILE_DEVIATIONS[mode]);
+    }
+
+    private void renormalize(){
+        for(int i = 0; i < histogram.length; i++){
+            histogram[i] /= weight;
+        }
+        for(int i = 0; i < products.length; i++){
+            products[i] /= weight;
+        }
+        sum /= weight;
+        sumOfSquares /= weight * weight;
+        weight = 1;
+    }
+
+    // Moves the weights of the major or natural minor profile onto the degrees of the mode.
+    private static double[] profile(String[] intervals){
+        int[] modeSteps = new int[intervals.length + 1];
+        for(int i = 0; i < intervals.length; i++){
+            modeSteps[i + 1] = Music.Intervals.get(intervals[i]).steps % PITCH_CLASSES;
+        }
+        boolean majorThird = modeSteps[2] == MAJOR_STEPS[2];
+        double[] baseProfile = majorThird ? MAJOR_PROFILE : MINOR_PROFILE;
+        int[] baseSteps = majorThird ? MAJOR_STEPS : MINOR_STEPS;
+
+        double[] profile = new double[PITCH_CLASSES];
+        boolean[] diatonic = new boolean[PITCH_CLASSES];
+        boolean[] baseDiatonic = new boolean[PITCH_CLASSES];
+        for(int i = 0; i < modeSteps.length; i++){
+            profile[modeSteps[i]] = baseProfile[baseSteps[i]];
+            diatonic[modeSteps[i]] = true;
+            baseDiatonic[baseSteps[i]] = true;
+        }
+
+        int basePitchClass = 0;
+        for(int pitchClass = 0; pitchClass < PITCH_CLASSES; pitchClass++){
+            if(diatonic[pitchClass]){
+                continue;
+            }
+            while(baseDiatonic[basePitchClass]){
+                basePitchClass++;
+            }
+            profile[pitchClass] = baseProfile[basePitchClass++];
+        }
+        return profile;
+    }
+}
@@ -0,0 +1,29 @@
+package com.kekstudio.musictheory;
+
+/**
+ * Receives the note events of a MidiFileReader, in tick order over all tracks.
+ * Events are passed as primitives, use MidiFileReader.toNote to get the spelled note.
+ * @author Andy671
+ */
+public interface MidiEventListener {
+
+    /**
+     * Called for every note-on event with a velocity above 0.
+     * @param track the index of the track.
+     * @param tick the absolute time of the event in ticks (see MidiFileReader.getDivision).
+     * @param channel the midi channel, from 0 to 15.
+     * @param midiValue the midi value of the note.
+     * @param velocity the velocity, from 1 to 127.
+     */
+    void noteOn(int track, long tick, int channel, int midiValue, int velocity);
+
+    /**
+     * Called for every note-off event, and for note-on events with velocity 0.
+     * @param track the index of the track.
+     * @param tick the absolute time of the event in ticks (see MidiFileReader.getDivision).
+     * @param channel the midi channel, from 0 to 15.
+     * @param midiValue the midi value of the note.
+     * @param velocity the release velocity, from 0 to 127.
+     */
+    void noteOff(int track, long tick, int channel, int midiValue, int velocity);
+}
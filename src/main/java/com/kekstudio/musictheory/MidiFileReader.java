@@ -0,0 +1,322 @@
+package com.kekstudio.musictheory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Streaming Standard MIDI File reader.
+ * Reads the track chunks from memory-mapped buffers and passes the note events of all tracks,
+ * merged in tick order, to a MidiEventListener. Only one event per track is decoded at a time,
+ * so memory use does not depend on the size of the file. Notes are spelled on demand with toNote.
+ * @author Andy671
+ */
+public class MidiFileReader implements Closeable {
+
+    private static final int HEADER_ID = 0x4D546864;   // MThd
+    private static final int TRACK_ID = 0x4D54726B;    // MTrk
+    private static final int HEADER_LENGTH = 6;
+    private static final int CHUNK_HEADER_LENGTH = 8;
+
+    private static final int NOTE_OFF = 0x80;
+    private static final int NOTE_ON = 0x90;
+    private static final int PROGRAM_CHANGE = 0xC0;
+    private static final int CHANNEL_PRESSURE = 0xD0;
+    private static final int SYSTEM_EXCLUSIVE = 0xF0;
+    private static final int SYSTEM_EXCLUSIVE_ESCAPE = 0xF7;
+    private static final int META = 0xFF;
+    private static final int META_END_OF_TRACK = 0x2F;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final RandomAccessFile file;
+
+    private int format;
+    private int trackCount;
+    private int division;
+    private long[] trackOffsets;
+    private int[] trackLengths;
+
+    private Speller speller = new Speller();
+
+    /**
+     * Opens a MIDI file.
+     * @param file the MIDI file.
+     * @throws IOException if the file can not be read.
+     */
+    public MidiFileReader(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.channel = this.file.getChannel();
+        this.buffer = null;
+        try{
+            readHeader();
+        }catch(IOException | RuntimeException e){
+            this.file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a MIDI file from a channel. The channel is not closed by the reader.
+     * @param channel the channel of the MIDI file.
+     * @throws IOException if the channel can not be read.
+     */
+    public MidiFileReader(FileChannel channel) throws IOException {
+        this.file = null;
+        this.channel = channel;
+        this.buffer = null;
+        readHeader();
+    }
+
+    /**
+     * Reads a MIDI file from a buffer, from its position to its limit.
+     * @param buffer the content of the MIDI file.
+     */
+    public MidiFileReader(ByteBuffer buffer){
+        this.file = null;
+        this.channel = null;
+        this.buffer = buffer.slice();
+        try{
+            readHeader();
+        }catch(IOException e){
+            throw new MusicTheoryException("Wrong MIDI file", e);
+        }
+    }
+
+    private void readHeader() throws IOException {
+        long size = channel != null ? channel.size() : buffer.limit();
+        ByteBuffer header = region(0, (int) Math.min(size, CHUNK_HEADER_LENGTH + HEADER_LENGTH));
+        if(header.remaining() < CHUNK_HEADER_LENGTH + HEADER_LENGTH || header.getInt() != HEADER_ID){
+            throw new MusicTheoryException("Wrong MIDI file: missing MThd header");
+        }
+        long headerLength = header.getInt() & 0xFFFFFFFFL;
+        if(headerLength < HEADER_LENGTH){
+            throw new MusicTheoryException("Wrong MIDI file: header too short");
+        }
+        format = header.getShort() & 0xFFFF;
+        trackCount = header.getShort() & 0xFFFF;
+        division = header.getShort() & 0xFFFF;
+
+        trackOffsets = new long[trackCount];
+        trackLengths = new int[trackCount];
+        long offset = CHUNK_HEADER_LENGTH + headerLength;
+        int track = 0;
+        while(track < trackCount && offset + CHUNK_HEADER_LENGTH <= size){
+            ByteBuffer chunkHeader = region(offset, CHUNK_HEADER_LENGTH);
+            int id = chunkHeader.getInt();
+            long length = chunkHeader.getInt() & 0xFFFFFFFFL;
+            if(offset + CHUNK_HEADER_LENGTH + length > size || length > Integer.MAX_VALUE){
+                throw new MusicTheoryException("Wrong MIDI file: chunk exceeds the file");
+            }
+            // Chunks other than MTrk are skipped, as the specification requires.
+            if(id == TRACK_ID){
+                trackOffsets[track] = offset + CHUNK_HEADER_LENGTH;
+                trackLengths[track] = (int) length;
+                track++;
+            }
+            offset += CHUNK_HEADER_LENGTH + length;
+        }
+        if(track < trackCount){
+            throw new MusicTheoryException("Wrong MIDI file: expected " + trackCount + " tracks, found " + track);
+        }
+    }
+
+    private ByteBuffer region(long offset, int length) throws IOException {
+        if(channel != null){
+            return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+        ByteBuffer region = buffer.duplicate();
+        region.position((int) offset);
+        region.limit((int) offset + length);
+        return region.slice();
+    }
+
+    /**
+     * Reads the note events of all tracks, in tick order. Events with the same tick are passed
+     * in track order. Can be called more than once.
+     * @param listener the listener receiving the events.
+     * @throws IOException if the file can not be read.
+     */
+    public void read(MidiEventListener listener) throws IOException {
+        TrackCursor[] cursors = new TrackCursor[trackCount];
+        for(int track = 0; track < trackCount; track++){
+            cursors[track] = new TrackCursor(track, region(trackOffsets[track], trackLengths[track]));
+        }
+
+        while(true){
+            TrackCursor next = null;
+            for(TrackCursor cursor : cursors){
+                if(!cursor.ended && (next == null || cursor.tick < next.tick)){
+                    next = cursor;
+                }
+            }
+            if(next == null){
+                return;
+            }
+            next.readEvent(listener);
+        }
+    }
+
+    /**
+     * Sets the key used to spell the notes of toNote (see Speller).
+     * @param key the key, or null to spell as in Music.ScaleAlterations for major keys.
+     */
+    public void setKey(Key key){
+        speller.setKey(key);
+    }
+
+    /**
+     * Sets the speller used by toNote, e.g. to spell with the current chord.
+     * @param speller the speller.
+     */
+    public void setSpeller(Speller speller){
+        this.speller = speller;
+    }
+
+    /**
+     * @return the speller used by toNote.
+     */
+    public Speller getSpeller(){
+        return speller;
+    }
+
+    /**
+     * Returns the spelled note of a midi value (see setKey).
+     * @param midiValue the midi value, from 0 to 127.
+     * @return the note, which can be modified.
+     */
+    public Note toNote(int midiValue){
+        // The speller can be replaced (see setSpeller), a shared note is copied.
+        Note note = speller.spell(midiValue);
+        return note.isShared() ? note.copy() : note;
+    }
+
+    /**
+     * @return the format of the file (0 for a single track, 1 for simultaneous tracks, 2 for independent tracks).
+     */
+    public int getFormat(){
+        return format;
+    }
+
+    /**
+     * @return the number of tracks.
+     */
+    public int getTrackCount(){
+        return trackCount;
+    }
+
+    /**
+     * @return the number of ticks per quarter note, or the SMPTE time division if the top bit is set.
+     */
+    public int getDivision(){
+        return division;
+    }
+
+    /**
+     * Closes the file if the reader opened it.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if(file != null){
+            file.close();
+        }
+    }
+
+    private static final class TrackCursor {
+
+        private final int track;
+        private final ByteBuffer data;
+        private long tick;
+        private int runningStatus;
+        private boolean ended;
+
+        TrackCursor(int track, ByteBuffer data){
+            this.track = track;
+            this.data = data;
+            readDelta();
+        }
+
+        private void readDelta(){
+            if(!data.hasRemaining()){
+                ended = true;
+                return;
+            }
+            tick += readVariableLength();
+        }
+
+        private long readVariableLength(){
+            long value = 0;
+            for(int i = 0; i < 4; i++){
+                int b = readByte();
+                value = (value << 7) | (b & 0x7F);
+                if((b & 0x80) == 0){
+                    return value;
+                }
+            }
+            throw new MusicTheoryException("Wrong MIDI file: variable length quantity too long in track " + track);
+        }
+
+        private int readByte(){
+            if(!data.hasRemaining()){
+                throw new MusicTheoryException("Wrong MIDI file: unexpected end of track " + track);
+            }
+            return data.get() & 0xFF;
+        }
+
+        private void skip(long length){
+            if(length > data.remaining()){
+                throw new MusicTheoryException("Wrong MIDI file: unexpected end of track " + track);
+            }
+            data.position(data.position() + (int) length);
+        }
+
+        void readEvent(MidiEventListener listener){
+            int status = readByte();
+            int firstData;
+            if(status < 0x80){
+                if(runningStatus == 0){
+                    throw new MusicTheoryException("Wrong MIDI file: data byte without status in track " + track);
+                }
+                firstData = status;
+                status = runningStatus;
+            }else if(status == META){
+                int type = readByte();
+                skip(readVariableLength());
+                if(type == META_END_OF_TRACK){
+                    ended = true;
+                    return;
+                }
+                readDelta();
+                return;
+            }else if(status == SYSTEM_EXCLUSIVE || status == SYSTEM_EXCLUSIVE_ESCAPE){
+                runningStatus = 0;
+                skip(readVariableLength());
+                readDelta();
+                return;
+            }else if(status > SYSTEM_EXCLUSIVE){
+                throw new MusicTheoryException("Wrong MIDI file: unexpected status " + status + " in track " + track);
+            }else{
+                runningStatus = status;
+                firstData = readByte();
+            }
+
+            int command = status & 0xF0;
+            int channel = status & 0x0F;
+            if(command == PROGRAM_CHANGE || command == CHANNEL_PRESSURE){
+                readDelta();
+                return;
+            }
+            int secondData = readByte();
+            if(command == NOTE_ON && secondData > 0){
+                listener.noteOn(track, tick, channel, firstData, secondData);
+            }else if(command == NOTE_ON || command == NOTE_OFF){
+                listener.noteOff(track, tick, channel, firstData, command == NOTE_ON ? 0 : secondData);
+            }
+            readDelta();
+        }
+    }
+}
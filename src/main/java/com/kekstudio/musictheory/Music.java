@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -66,7 +67,7 @@ public class Music {
     public static final Map<Interval, String> IntervalsInverse;
     
     static{
-        Map<String, Interval> tempIntervals = new HashMap<>();
+        Map<String, Interval> tempIntervals = new LinkedHashMap<>();
         tempIntervals.put("m2", new Interval(1, 1));
         tempIntervals.put("M2", new Interval(1, 2));
         tempIntervals.put("m3", new Interval(2, 3));
@@ -83,6 +84,13 @@ public class Music {
         tempIntervals.put("M7", new Interval(6, 11));
         tempIntervals.put("A7", new Interval(6, 12));
         tempIntervals.put("P8", new Interval(7, 12));
+        tempIntervals.put("m9", new Interval(8, 13));
+        tempIntervals.put("M9", new Interval(8, 14));
+        tempIntervals.put("A9", new Interval(8, 15));
+        tempIntervals.put("P11", new Interval(10, 17));
+        tempIntervals.put("A11", new Interval(10, 18));
+        tempIntervals.put("m13", new Interval(12, 20));
+        tempIntervals.put("M13", new Interval(12, 21));
         
         Intervals = Collections.unmodifiableMap(tempIntervals);
         
@@ -100,11 +108,12 @@ public class Music {
     public static final Map<String, String[]> Scales;
     /**
      * An inverse dictionary of scale names and their intervals.
+     * Keyed by array identity, use IntervalIndex to look up scales by interval content.
      */
     public static final Map<String[], String> ScalesInverse;
     
     static{
-        Map<String, String[]> tempScales = new HashMap<>();
+        Map<String, String[]> tempScales = new LinkedHashMap<>();
         tempScales.put("major", new String[]{"M2", "M3", "P4", "P5", "M6", "M7"});
         tempScales.put("minor", new String[]{"M2", "m3", "P4", "P5", "m6", "m7"});
         tempScales.put("dorian", new String[]{"M2", "m3", "P4", "P5", "M6", "m7"});
@@ -165,11 +174,12 @@ public class Music {
     public static final Map<String, String[]> Chords;
     /**
      * An inverse dictionary of chord names and their intervals.
+     * Keyed by array identity, use IntervalIndex to look up chords by interval content.
      */
     public static final Map<String[], String> ChordsInverse;
     
     static{
-        Map<String, String[]> tempChords = new HashMap<>();
+        Map<String, String[]> tempChords = new LinkedHashMap<>();
         tempChords.put("m", new String[]{"m3", "P5"});
         tempChords.put("maj", new String[]{"M3", "P5"});
         tempChords.put("dim", new String[]{"m3", "d5"});
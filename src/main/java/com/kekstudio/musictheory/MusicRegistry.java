@@ -0,0 +1,386 @@
+package com.kekstudio.musictheory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of scale types, chord types, scale alterations and scale degrees.
+ * Starts with the dictionaries of Music, and accepts custom definitions (e.g. harmonic minor, 9 chords),
+ * usually registered at startup. The definitions are compiled on first use into an immutable snapshot
+ * with dense integer ids (see ScaleType and ChordType for the built-in ones), which is replaced on every registration: reads never lock,
+ * and tables derived from the registry (see IntervalIndex, ChordRecognizer) are rebuilt lazily.
+ * @author Andy671
+ */
+public final class MusicRegistry {
+
+    private static final int PITCH_CLASSES = 12;
+
+    private static final Object LOCK = new Object();
+
+    // Custom definitions, guarded by LOCK. Ids follow the built-in types, in registration order.
+    private static final Map<String, String[]> scales = new LinkedHashMap<>();
+    private static final Map<String, String[]> chords = new LinkedHashMap<>();
+    private static final Map<String, String> majorChordSuffixes = new HashMap<>();
+    private static final Map<String, String> minorChordSuffixes = new HashMap<>();
+    private static final Map<String, String[]> alterations = new HashMap<>();
+    private static final Map<String, String[]> degrees = new HashMap<>();
+
+    private static volatile Snapshot snapshot;
+
+    private MusicRegistry(){
+    }
+
+    /**
+     * Registers a scale type.
+     * @param scaleType the name of the scale type (e.g. harmonic minor).
+     * @param intervals the interval symbols of the scale, without the root.
+     */
+    public static void registerScale(String scaleType, String[] intervals){
+        checkIntervals(intervals);
+        synchronized(LOCK){
+            if(snapshot().scaleId(scaleType) != -1){
+                throw new MusicTheoryException("Scale type '" + scaleType + "' is already registered");
+            }
+            scales.put(scaleType, intervals.clone());
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Registers a chord type that has no Roman numeral.
+     * @param chordType the name of the chord type (e.g. 9).
+     * @param intervals the interval symbols of the chord, without the root.
+     */
+    public static void registerChord(String chordType, String[] intervals){
+        registerChord(chordType, intervals, true, null);
+    }
+
+    /**
+     * Registers a chord type with its Roman numeral suffix.
+     * @param chordType the name of the chord type (e.g. 9).
+     * @param intervals the interval symbols of the chord, without the root.
+     * @param major true if the Roman numeral of the chord is upper case.
+     * @param romanSuffix the suffix of the Roman numeral (e.g. 9 for V9), or null if there is none.
+     */
+    public static void registerChord(String chordType, String[] intervals, boolean major, String romanSuffix){
+        checkIntervals(intervals);
+        synchronized(LOCK){
+            Snapshot current = snapshot();
+            if(current.chordId(chordType) != -1){
+                throw new MusicTheoryException("Chord type '" + chordType + "' is already registered");
+            }
+            if(romanSuffix != null && current.suffixType(major, romanSuffix) != null){
+                throw new MusicTheoryException("Roman numeral suffix '" + romanSuffix + "' is already registered");
+            }
+            chords.put(chordType, intervals.clone());
+            if(romanSuffix != null){
+                (major ? majorChordSuffixes : minorChordSuffixes).put(chordType, romanSuffix);
+            }
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Registers the spelling of the key notes of a scale type, replacing the previous one.
+     * @param scaleType the scale type.
+     * @param keyNotes the names of the key notes, one per pitch class from C (see Music.ScaleAlterations).
+     */
+    public static void registerAlterations(String scaleType, String[] keyNotes){
+        if(keyNotes.length != PITCH_CLASSES){
+            throw new MusicTheoryException("Expected " + PITCH_CLASSES + " key notes, got " + keyNotes.length);
+        }
+        for(String keyNote : keyNotes){
+            Note.of(keyNote);
+        }
+        synchronized(LOCK){
+            checkScale(scaleType);
+            alterations.put(scaleType, keyNotes.clone());
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Registers the in-key degrees of a scale type, replacing the previous ones.
+     * @param scaleType the scale type.
+     * @param inKeyDegrees the Roman numerals of the degrees (see Music.ScaleDegrees).
+     */
+    public static void registerDegrees(String scaleType, String[] inKeyDegrees){
+        for(String degree : inKeyDegrees){
+            RomanNumeral.parse(degree);
+        }
+        synchronized(LOCK){
+            checkScale(scaleType);
+            degrees.put(scaleType, inKeyDegrees.clone());
+            snapshot = null;
+        }
+    }
+
+    /**
+     * @param scaleType the scale type.
+     * @return the id of the scale type, or -1 if it is not registered.
+     */
+    public static int scaleId(String scaleType){
+        return snapshot().scaleId(scaleType);
+    }
+
+    /**
+     * @param chordType the chord type.
+     * @return the id of the chord type, or -1 if it is not registered.
+     */
+    public static int chordId(String chordType){
+        return snapshot().chordId(chordType);
+    }
+
+    /**
+     * @return the number of scale types.
+     */
+    public static int scaleCount(){
+        return snapshot().scaleTypes.length;
+    }
+
+    /**
+     * @return the number of chord types.
+     */
+    public static int chordCount(){
+        return snapshot().chordTypes.length;
+    }
+
+    /**
+     * @param scaleId the id of the scale type.
+     * @return the scale type.
+     */
+    public static String scaleType(int scaleId){
+        Snapshot current = snapshot();
+        return current.scaleTypes[current.checkedScaleId(scaleId)];
+    }
+
+    /**
+     * @param chordId the id of the chord type.
+     * @return the chord type.
+     */
+    public static String chordType(int chordId){
+        Snapshot current = snapshot();
+        return current.chordTypes[current.checkedChordId(chordId)];
+    }
+
+    /**
+     * @param scaleType the scale type.
+     * @return a copy of the intervals of the scale type, or null if it is not registered.
+     */
+    public static String[] scaleIntervals(String scaleType){
+        String[] intervals = snapshot().scaleIntervals(scaleType);
+        return intervals == null ? null : intervals.clone();
+    }
+
+    /**
+     * @param chordType the chord type.
+     * @return a copy of the intervals of the chord type, or null if it is not registered.
+     */
+    public static String[] chordIntervals(String chordType){
+        String[] intervals = snapshot().chordIntervals(chordType);
+        return intervals == null ? null : intervals.clone();
+    }
+
+    /**
+     * @param scaleType the scale type.
+     * @return a copy of the key notes of the scale type (see Music.ScaleAlterations), or null if there are none.
+     */
+    public static String[] alterations(String scaleType){
+        String[] keyNotes = snapshot().alterations(scaleType);
+        return keyNotes == null ? null : keyNotes.clone();
+    }
+
+    /**
+     * @param scaleType the scale type.
+     * @return a copy of the in-key degrees of the scale type (see Music.ScaleDegrees), or null if there are none.
+     */
+    public static String[] degrees(String scaleType){
+        int scaleId = scaleId(scaleType);
+        String[] inKeyDegrees = scaleId == -1 ? null : snapshot().scaleDegrees[scaleId];
+        return inKeyDegrees == null ? null : inKeyDegrees.clone();
+    }
+
+    /**
+     * Returns the current snapshot, compiling it if the registry changed.
+     */
+    static Snapshot snapshot(){
+        Snapshot current = snapshot;
+        if(current == null){
+            synchronized(LOCK){
+                current = snapshot;
+                if(current == null){
+                    current = new Snapshot();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static void checkIntervals(String[] intervals){
+        for(String interval : intervals){
+            SpellingTable.checkedIntervalId(interval);
+        }
+    }
+
+    private static void checkScale(String scaleType){
+        if(snapshot().scaleId(scaleType) == -1){
+            throw new MusicTheoryException("Unknown scale type name '" + scaleType + "'");
+        }
+    }
+
+    /**
+     * Immutable compiled registry. Types are indexed by dense ids, built-in types first.
+     */
+    static final class Snapshot {
+
+        final String[] scaleTypes;
+        final String[][] scaleIntervals;
+        // Interval ids (see SpellingTable) of the intervals, resolved once per snapshot.
+        final int[][] scaleIntervalIds;
+        final String[][] scaleAlterations;
+        final String[][] scaleDegrees;
+
+        final String[] chordTypes;
+        final String[][] chordIntervals;
+        final int[][] chordIntervalIds;
+        // Upper or lower case Roman numeral, and suffix (null if the chord has no Roman numeral).
+        final boolean[] chordMajor;
+        final String[] chordSuffixes;
+
+        // Suffix to chord type tables for Roman numeral parsing.
+        final String[] majorSuffixes;
+        final String[] majorSuffixTypes;
+        final String[] minorSuffixes;
+        final String[] minorSuffixTypes;
+
+        private final Map<String, Integer> scaleIds = new HashMap<>();
+        private final Map<String, Integer> chordIds = new HashMap<>();
+
+        // Called with LOCK held.
+        Snapshot(){
+            Map<String, String[]> allScales = new LinkedHashMap<>(Music.Scales);
+            allScales.putAll(scales);
+            scaleTypes = allScales.keySet().toArray(new String[allScales.size()]);
+            scaleIntervals = new String[scaleTypes.length][];
+            scaleIntervalIds = new int[scaleTypes.length][];
+            scaleAlterations = new String[scaleTypes.length][];
+            scaleDegrees = new String[scaleTypes.length][];
+            for(int id = 0; id < scaleTypes.length; id++){
+                String scaleType = scaleTypes[id];
+                scaleIds.put(scaleType, id);
+                scaleIntervals[id] = allScales.get(scaleType);
+                scaleIntervalIds[id] = intervalIds(scaleIntervals[id]);
+                scaleAlterations[id] = alterations.containsKey(scaleType)
+                                       ? alterations.get(scaleType) : Music.ScaleAlterations.get(scaleType);
+                scaleDegrees[id] = degrees.containsKey(scaleType)
+                                   ? degrees.get(scaleType) : Music.ScaleDegrees.get(scaleType);
+            }
+
+            Map<String, String[]> allChords = new LinkedHashMap<>(Music.Chords);
+            allChords.putAll(chords);
+            chordTypes = allChords.keySet().toArray(new String[allChords.size()]);
+            chordIntervals = new String[chordTypes.length][];
+            chordIntervalIds = new int[chordTypes.length][];
+            chordMajor = new boolean[chordTypes.length];
+            chordSuffixes = new String[chordTypes.length];
+            for(int id = 0; id < chordTypes.length; id++){
+                String chordType = chordTypes[id];
+                chordIds.put(chordType, id);
+                chordIntervals[id] = allChords.get(chordType);
+                chordIntervalIds[id] = intervalIds(chordIntervals[id]);
+                if(Music.ChordsMajor.containsKey(chordType) || majorChordSuffixes.containsKey(chordType)){
+                    chordMajor[id] = true;
+                    chordSuffixes[id] = Music.ChordsMajor.containsKey(chordType)
+                                        ? Music.ChordsMajor.get(chordType) : majorChordSuffixes.get(chordType);
+                }else{
+                    chordSuffixes[id] = Music.ChordsMinor.containsKey(chordType)
+                                        ? Music.ChordsMinor.get(chordType) : minorChordSuffixes.get(chordType);
+                }
+            }
+
+            List<String> suffixes = new ArrayList<>();
+            List<String> suffixTypes = new ArrayList<>();
+            suffixTable(Music.ChordsMajorInverse, majorChordSuffixes, suffixes, suffixTypes);
+            majorSuffixes = suffixes.toArray(new String[suffixes.size()]);
+            majorSuffixTypes = suffixTypes.toArray(new String[suffixTypes.size()]);
+            suffixes.clear();
+            suffixTypes.clear();
+            suffixTable(Music.ChordsMinorInverse, minorChordSuffixes, suffixes, suffixTypes);
+            minorSuffixes = suffixes.toArray(new String[suffixes.size()]);
+            minorSuffixTypes = suffixTypes.toArray(new String[suffixTypes.size()]);
+        }
+
+        private static int[] intervalIds(String[] intervals){
+            int[] intervalIds = new int[intervals.length];
+            for(int i = 0; i < intervals.length; i++){
+                intervalIds[i] = SpellingTable.checkedIntervalId(intervals[i]);
+            }
+            return intervalIds;
+        }
+
+        private static void suffixTable(Map<String, String> builtIn, Map<String, String> custom,
+                                        List<String> suffixes, List<String> suffixTypes){
+            for(Map.Entry<String, String> entry : builtIn.entrySet()){
+                suffixes.add(entry.getKey());
+                suffixTypes.add(entry.getValue());
+            }
+            for(Map.Entry<String, String> entry : custom.entrySet()){
+                suffixes.add(entry.getValue());
+                suffixTypes.add(entry.getKey());
+            }
+        }
+
+        int scaleId(String scaleType){
+            Integer id = scaleIds.get(scaleType);
+            return id == null ? -1 : id;
+        }
+
+        int chordId(String chordType){
+            Integer id = chordIds.get(chordType);
+            return id == null ? -1 : id;
+        }
+
+        int checkedScaleId(int scaleId){
+            if(scaleId < 0 || scaleId >= scaleTypes.length){
+                throw new MusicTheoryException("Unknown scale type id " + scaleId);
+            }
+            return scaleId;
+        }
+
+        int checkedChordId(int chordId){
+            if(chordId < 0 || chordId >= chordTypes.length){
+                throw new MusicTheoryException("Unknown chord type id " + chordId);
+            }
+            return chordId;
+        }
+
+        String[] scaleIntervals(String scaleType){
+            int id = scaleId(scaleType);
+            return id == -1 ? null : scaleIntervals[id];
+        }
+
+        String[] chordIntervals(String chordType){
+            int id = chordId(chordType);
+            return id == -1 ? null : chordIntervals[id];
+        }
+
+        String[] alterations(String scaleType){
+            int id = scaleId(scaleType);
+            return id == -1 ? null : scaleAlterations[id];
+        }
+
+        String suffixType(boolean major, String suffix){
+            String[] suffixes = major ? majorSuffixes : minorSuffixes;
+            for(int i = 0; i < suffixes.length; i++){
+                if(suffixes[i].equals(suffix)){
+                    return (major ? majorSuffixTypes : minorSuffixTypes)[i];
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.kekstudio.musictheory;
+
+/**
+ * Lightweight MusicTheoryException for invalid input, with an error code (see ParseResult).
+ * Does not fill in its stack trace, so it is cheap to create and throw.
+ * @author Andy671
+ */
+public class MusicTheoryParseException extends MusicTheoryException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int error;
+
+    public MusicTheoryParseException(int error, String message){
+        super(message, null, false, false);
+        this.error = error;
+    }
+
+    /**
+     * @return the error code (e.g. ParseResult.UNKNOWN_CHORD_TYPE).
+     */
+    public int getError(){
+        return error;
+    }
+}
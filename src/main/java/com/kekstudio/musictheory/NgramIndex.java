@@ -0,0 +1,263 @@
+package com.kekstudio.musictheory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index of the chord n-grams of songs, for progression search (e.g. songs containing ii7 V7 Imaj7).
+ * Every chord is indexed by its degree in the key of the song and its type (see CorpusAnalyzer), so that
+ * the same progression matches in every key. The sequences of 1 to MAX_NGRAM_LENGTH chords are packed
+ * into long keys, each mapped to the sorted ids of the songs containing it. Longer queries intersect the
+ * lists of their n-grams and check the candidates against the stored chords.
+ * Songs are added incrementally, and queries can run concurrently with each other and with additions.
+ * @author Andy671
+ */
+public class NgramIndex {
+
+    /**
+     * The number of chords of the longest indexed n-grams.
+     */
+    public static final int MAX_NGRAM_LENGTH = 3;
+
+    // Token: (type id << 5 | degree code) + 1, never 0, so that shorter n-grams have other keys.
+    private static final int TOKEN_BITS = 21;
+    private static final int DEGREE_BITS = 5;
+    private static final int MAX_TYPES = 1 << (TOKEN_BITS - DEGREE_BITS - 1);
+    private static final int[] NONE = new int[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Map<String, Integer> typeIds = new HashMap<>();
+    private final List<int[]> songTokens = new ArrayList<>();
+    private final Map<String, KeyDegrees> keyDegrees = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the chords of a progression.
+     * @param progression the progression.
+     * @return the id of the song, the number of songs added before.
+     */
+    public int add(Progression progression){
+        return add(progression.getKey(), progression.chords());
+    }
+
+    /**
+     * Adds a song.
+     * @param key the key of the song.
+     * @param chords the chords of the song.
+     * @return the id of the song, the number of songs added before.
+     */
+    public int add(Key key, Chord... chords){
+        // The degrees are found before locking, only the types and postings are shared.
+        KeyDegrees degrees = keyDegrees(key);
+        int[] degreeCodes = new int[chords.length];
+        for(int i = 0; i < chords.length; i++){
+            degreeCodes[i] = degrees.degreeCode(chords[i]);
+        }
+
+        lock.writeLock().lock();
+        try{
+            int[] tokens = new int[chords.length];
+            for(int i = 0; i < chords.length; i++){
+                tokens[i] = token(degreeCodes[i], typeId(chords[i].getType()));
+            }
+            int songId = songTokens.size();
+            songTokens.add(tokens);
+            for(int start = 0; start < tokens.length; start++){
+                long ngramKey = 0L;
+                for(int length = 1; length <= MAX_NGRAM_LENGTH && start + length <= tokens.length; length++){
+                    ngramKey = (ngramKey << TOKEN_BITS) | tokens[start + length - 1];
+                    PostingList list = postings.get(ngramKey);
+                    if(list == null){
+                        list = new PostingList();
+                        postings.put(ngramKey, list);
+                    }
+                    list.add(songId);
+                }
+            }
+            return songId;
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the songs containing successive chords.
+     * @param romanNumerals Roman numerals separated by spaces, commas, bars or dashes (e.g. "ii7 V7 Imaj7").
+     * @return the ids of the songs, in increasing order.
+     */
+    public int[] find(String romanNumerals){
+        return find(RomanNumeral.parseAll(romanNumerals));
+    }
+
+    /**
+     * Finds the songs containing successive chords.
+     * @param romanNumerals the Roman numerals of the chords.
+     * @return the ids of the songs, in increasing order.
+     */
+    public int[] find(RomanNumeral... romanNumerals){
+        if(romanNumerals.length == 0){
+            throw new MusicTheoryException("Empty n-gram query");
+        }
+        lock.readLock().lock();
+        try{
+            int[] tokens = new int[romanNumerals.length];
+            for(int i = 0; i < tokens.length; i++){
+                RomanNumeral romanNumeral = romanNumerals[i];
+                // Types unknown to the registry are indexed by name, as their suffix (e.g. maj7#11).
+                String type = romanNumeral.getChordType() != null ? romanNumeral.getChordType() : romanNumeral.getSuffix();
+                Integer typeId = typeIds.get(type);
+                if(typeId == null){
+                    return NONE;
+                }
+                tokens[i] = token(KeyDegrees.degreeCode(romanNumeral.getDegree(), romanNumeral.getAccidental()), typeId);
+            }
+
+            if(tokens.length <= MAX_NGRAM_LENGTH){
+                PostingList list = postings.get(ngramKey(tokens, 0, tokens.length));
+                return list != null ? Arrays.copyOf(list.ids, list.size) : NONE;
+            }
+
+            // Intersects the lists of the n-grams, from the shortest, then checks the order of the n-grams.
+            int ngramCount = tokens.length - MAX_NGRAM_LENGTH + 1;
+            PostingList[] lists = new PostingList[ngramCount];
+            for(int start = 0; start < ngramCount; start++){
+                lists[start] = postings.get(ngramKey(tokens, start, MAX_NGRAM_LENGTH));
+                if(lists[start] == null){
+                    return NONE;
+                }
+            }
+            PostingList shortest = lists[0];
+            for(PostingList list : lists){
+                if(list.size < shortest.size){
+                    shortest = list;
+                }
+            }
+            int[] candidates = Arrays.copyOf(shortest.ids, shortest.size);
+            int candidateCount = candidates.length;
+            for(PostingList list : lists){
+                if(list != shortest){
+                    candidateCount = intersect(candidates, candidateCount, list.ids, list.size);
+                }
+            }
+            int count = 0;
+            for(int i = 0; i < candidateCount; i++){
+                if(contains(songTokens.get(candidates[i]), tokens)){
+                    candidates[count++] = candidates[i];
+                }
+            }
+            return Arrays.copyOf(candidates, count);
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of songs.
+     */
+    public int size(){
+        lock.readLock().lock();
+        try{
+            return songTokens.size();
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of distinct n-grams.
+     */
+    public int getNgramCount(){
+        lock.readLock().lock();
+        try{
+            return postings.size();
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    private KeyDegrees keyDegrees(Key key){
+        String keyName = key.getName() + ' ' + key.getType();
+        KeyDegrees degrees = keyDegrees.get(keyName);
+        if(degrees == null){
+            degrees = new KeyDegrees(key);
+            keyDegrees.put(keyName, degrees);
+        }
+        return degrees;
+    }
+
+    private int typeId(String type){
+        Integer typeId = typeIds.get(type);
+        if(typeId == null){
+            if(typeIds.size() == MAX_TYPES){
+                throw new MusicTheoryException("Too many chord types to index: '" + type + "'");
+            }
+            typeId = typeIds.size();
+            typeIds.put(type, typeId);
+        }
+        return typeId;
+    }
+
+    private static int token(int degreeCode, int typeId){
+        return ((typeId << DEGREE_BITS) | degreeCode) + 1;
+    }
+
+    private static long ngramKey(int[] tokens, int start, int length){
+        long key = 0L;
+        for(int i = start; i < start + length; i++){
+            key = (key << TOKEN_BITS) | tokens[i];
+        }
+        return key;
+    }
+
+    // Keeps the ids of candidates found in ids, returns their number. Both arrays are sorted.
+    private static int intersect(int[] candidates, int candidateCount, int[] ids, int size){
+        int count = 0;
+        int from = 0;
+        for(int i = 0; i < candidateCount && from < size; i++){
+            int index = Arrays.binarySearch(ids, from, size, candidates[i]);
+            if(index >= 0){
+                candidates[count++] = candidates[i];
+                from = index + 1;
+            }else{
+                from = -index - 1;
+            }
+        }
+        return count;
+    }
+
+    private static boolean contains(int[] tokens, int[] query){
+        for(int start = 0; start + query.length <= tokens.length; start++){
+            int i = 0;
+            while(i < query.length && tokens[start + i] == query[i]){
+                i++;
+            }
+            if(i == query.length){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Sorted song ids, without duplicates since songs are added in id order.
+    private static final class PostingList {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int songId){
+            if(size > 0 && ids[size - 1] == songId){
+                return;
+            }
+            if(size == ids.length){
+                ids = Arrays.copyOf(ids, 2 * size);
+            }
+            ids[size++] = songId;
+        }
+    }
+}
@@ -1,21 +1,40 @@
 package com.kekstudio.musictheory;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-
 /**
  * Music Note.
  * Basic structure block in music theory.
+ * Notes returned by {@link #of} are shared and can not be modified; use copy() to get a modifiable note.
+ * Scales and chords keep their own modifiable notes.
  * @author Andy671
  */
 public class Note implements Comparable<Note>  {
 
+    private static final int SHARED_MAX_ACCIDENTALS = 2;
+    private static final int SHARED_MIN_OCTAVE = -1;
+    private static final int SHARED_MAX_OCTAVE = 9;
+    private static final int SHARED_ACCIDENTAL_SPAN = 2 * SHARED_MAX_ACCIDENTALS + 1;
+    private static final int SHARED_OCTAVE_SPAN = SHARED_MAX_OCTAVE - SHARED_MIN_OCTAVE + 1;
+    private static final Note[] SHARED_NOTES;
+    
+    static{
+        SHARED_NOTES = new Note[Music.Alphabet.length * SHARED_ACCIDENTAL_SPAN * SHARED_OCTAVE_SPAN];
+        for(int letterIndex = 0; letterIndex < Music.Alphabet.length; letterIndex++){
+            for(int accidentals = -SHARED_MAX_ACCIDENTALS; accidentals <= SHARED_MAX_ACCIDENTALS; accidentals++){
+                for(int octave = SHARED_MIN_OCTAVE; octave <= SHARED_MAX_OCTAVE; octave++){
+                    SHARED_NOTES[sharedIndex(letterIndex, accidentals, octave)] = 
+                            createShared(letterIndex, accidentals, octave);
+                }
+            }
+        }
+    }
+
     private String name;
     private int octave;
     private String letter; 
     private int letterIndex;    
+    private int accidentals;    //sharps are positive, flats are negative
     private int value;          //MIDI value
+    private boolean shared;
 
     /**
      * Initializes the note with a name and default octave 4.
@@ -31,21 +50,136 @@ public class Note implements Comparable<Note>  {
      * @param octave the initial octave of the note.
      */
     public Note(String name, int octave){
-        this.name = name;
         this.octave = octave;
-       
-        letter = name.substring(0,1);
         
-        List<String> alphabet = new ArrayList<>(Arrays.asList(Music.Alphabet));
-         
-        letterIndex = alphabet.indexOf(letter);
-        if(letterIndex == -1){
-            throw new MusicTheoryException("Wrong note name '" + letter + "' in '" + name + "'");
-        }
+        letterIndex = parseLetterIndex(name);
+        letter = Music.Alphabet[letterIndex];
+        accidentals = parseAccidentals(name);
+        this.name = SpellingTable.name(letterIndex, accidentals);
             
         this.value = generateMidiValue();
     }
     
+    Note(int letterIndex, int accidentals, int octave, int value){
+        set(letterIndex, accidentals, octave, value);
+    }
+    
+    /**
+     * Returns the shared note with a name and default octave 4.
+     * @param name the name of the note.
+     * @return the shared note.
+     */
+    public static Note of(String name){
+        return of(name, 4);
+    }
+    
+    /**
+     * Returns the shared note with a name and octave. 
+     * Shared notes can not be modified, use copy() to get a modifiable note.
+     * @param name the name of the note.
+     * @param octave the octave of the note.
+     * @return the shared note.
+     */
+    public static Note of(String name, int octave){
+        return of(parseLetterIndex(name), parseAccidentals(name), octave);
+    }
+    
+    /**
+     * Parses a note name without throwing, for untrusted input.
+     * @param name the name of the note.
+     * @param octave the octave of the note.
+     * @return the new note, or the error code.
+     */
+    public static ParseResult<Note> tryParse(String name, int octave){
+        int error = nameError(name);
+        if(error != ParseResult.OK){
+            return ParseResult.failure(error);
+        }
+        return ParseResult.success(of(name, octave).copy());
+    }
+    
+    /**
+     * Returns the error code of a note name.
+     */
+    static int nameError(String name){
+        if(name == null || name.isEmpty()){
+            return ParseResult.EMPTY_INPUT;
+        }
+        if(SpellingTable.letterIndex(name.charAt(0)) == -1){
+            return ParseResult.WRONG_NOTE_NAME;
+        }
+        for(int i = 1; i < name.length(); i++){
+            char accident = name.charAt(i);
+            if(accident != Music.SHARP && accident != Music.FLAT){
+                return ParseResult.WRONG_ACCIDENTAL;
+            }
+        }
+        return ParseResult.OK;
+    }
+    
+    static Note of(int letterIndex, int accidentals, int octave){
+        if(accidentals < -SHARED_MAX_ACCIDENTALS || accidentals > SHARED_MAX_ACCIDENTALS
+                || octave < SHARED_MIN_OCTAVE || octave > SHARED_MAX_OCTAVE){
+            return createShared(letterIndex, accidentals, octave);
+        }
+        return SHARED_NOTES[sharedIndex(letterIndex, accidentals, octave)];
+    }
+    
+    private static Note createShared(int letterIndex, int accidentals, int octave){
+        int value = SpellingTable.letterValue(letterIndex) + accidentals + (octave + 1) * 12;
+        Note note = new Note(letterIndex, accidentals, octave, value);
+        note.shared = true;
+        return note;
+    }
+    
+    private static int sharedIndex(int letterIndex, int accidentals, int octave){
+        return (letterIndex * SHARED_ACCIDENTAL_SPAN + accidentals + SHARED_MAX_ACCIDENTALS) * SHARED_OCTAVE_SPAN
+               + octave - SHARED_MIN_OCTAVE;
+    }
+    
+    private static int parseLetterIndex(String name){
+        int letterIndex = SpellingTable.letterIndex(name.charAt(0));
+        if(letterIndex == -1){
+            throw new MusicTheoryException("Wrong note name '" + name.substring(0,1) + "' in '" + name + "'");
+        }
+        return letterIndex;
+    }
+    
+    private static int parseAccidentals(String name){
+        int accidentals = 0;
+        for(int i = 1; i < name.length(); i++){
+            char accident = name.charAt(i);
+            if(accident == Music.SHARP){
+                accidentals++;
+            }else if(accident == Music.FLAT){
+                accidentals--;
+            }else{
+                throw new MusicTheoryException("Wrong note accidental name '" + accident + "' in '" + name + "'");
+            }
+        }
+        return accidentals;
+    }
+    
+    /**
+     * Creates a note with the given spelling that sounds at the given midi value.
+     * The octave is derived from the midi value (e.g. B#3 for midi 60).
+     */
+    static Note spell(int letterIndex, int accidentals, int midiValue){
+        int naturalValue = midiValue - SpellingTable.letterValue(letterIndex) - accidentals;
+        int octave = (naturalValue >= 0 ? naturalValue / 12 : (naturalValue - 11) / 12) - 1;
+        return of(letterIndex, accidentals, octave);
+    }
+    
+    private void set(int letterIndex, int accidentals, int octave, int value){
+        checkModifiable();
+        this.name = SpellingTable.name(letterIndex, accidentals);
+        this.octave = octave;
+        this.letter = Music.Alphabet[letterIndex];
+        this.letterIndex = letterIndex;
+        this.accidentals = accidentals;
+        this.value = value;
+    }
+    
     private void setMidiValue(int value){
         this.value = value;
     }
@@ -55,51 +189,119 @@ public class Note implements Comparable<Note>  {
      * @param octave the new octave.
      */
     public void setOctave(int octave){
+        checkModifiable();
         int diff = this.octave - octave;
         setMidiValue(diff * 12 + getMidiValue());
         this.octave += diff;
     }
     
-    private int generateMidiValue(){
-        int midiValue = Music.Notes.get(letter);
-        if(this.name.length() > 1){
-            char accident = this.name.charAt(name.length()-1);
-            
-            if(accident == Music.SHARP){
-                midiValue++;
-            }else if(accident == Music.FLAT){
-                midiValue--;
-            }else{
-                throw new MusicTheoryException("Wrong note accidental name '" + accident + "' in '" + name + "'");
-            }
+    private void checkModifiable(){
+        if(shared){
+            throw new MusicTheoryException("Note '" + name + octave + "' is shared and can not be modified, use copy()");
         }
-        midiValue += (this.octave + 1) * 12;
-        
-        return midiValue;
+    }
+    
+    private int generateMidiValue(){
+        return SpellingTable.letterValue(letterIndex) + accidentals + (this.octave + 1) * 12;
     }
 
     /**
      * Generates a scale from a type, with the note as root.
-     * @param scaleType the type of scale to generate. 
+     * @param scaleType the type of scale to generate (see MusicRegistry). 
      * @return the generated Scale.
      */
     public Scale scale(String scaleType){
-        if(!Music.Scales.containsKey(scaleType)){
+        long startNanos = TheoryMetrics.ENABLED ? System.nanoTime() : 0L;
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        int scaleId = registry.scaleId(scaleType);
+        if(scaleId == -1){
             throw new MusicTheoryException("Unknown scale type name '" + scaleType + "'");
         }
-        return new Scale(this, Music.Scales.get(scaleType));
+        return scale(registry, scaleId, startNanos);
+    }
+    
+    /**
+     * Generates a scale from a type id, with the note as root.
+     * @param scaleType the id of the type of scale to generate (see ScaleType). 
+     * @return the generated Scale.
+     */
+    public Scale scale(int scaleType){
+        long startNanos = TheoryMetrics.ENABLED ? System.nanoTime() : 0L;
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        return scale(registry, registry.checkedScaleId(scaleType), startNanos);
+    }
+    
+    /**
+     * Generates a scale from a type without throwing, for untrusted input.
+     * @param scaleType the type of scale to generate (see MusicRegistry). 
+     * @return the generated Scale, or the error code.
+     */
+    public ParseResult<Scale> tryScale(String scaleType){
+        long startNanos = TheoryMetrics.ENABLED ? System.nanoTime() : 0L;
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        int scaleId = registry.scaleId(scaleType);
+        if(scaleId == -1){
+            return ParseResult.failure(ParseResult.UNKNOWN_SCALE_TYPE);
+        }
+        return ParseResult.success(scale(registry, scaleId, startNanos));
+    }
+    
+    private Scale scale(MusicRegistry.Snapshot registry, int scaleId, long startNanos){
+        Scale scale = new Scale(this, registry.scaleIntervals[scaleId], registry.scaleIntervalIds[scaleId]);
+        if(TheoryMetrics.ENABLED){
+            TheoryMetrics.record(TheoryMetrics.SCALE, startNanos);
+        }
+        return scale;
     }
     
     /**
      * Generates a chord from a chordType, with the note as root.
-     * @param chordType the type of chord to generate. 
+     * @param chordType the type of chord to generate (see MusicRegistry). 
      * @return chord
      */
     public Chord chord(String chordType){
-        if(!Music.Chords.containsKey(chordType)){
+        long startNanos = TheoryMetrics.ENABLED ? System.nanoTime() : 0L;
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        int chordId = registry.chordId(chordType);
+        if(chordId == -1){
             throw new MusicTheoryException("Unknown chord type name '" + chordType + "'");
         }
-        return new Chord(this, Music.Chords.get(chordType));
+        return chord(registry, chordId, startNanos);
+    }
+    
+    /**
+     * Generates a chord from a type id, with the note as root.
+     * @param chordType the id of the type of chord to generate (see ChordType). 
+     * @return chord
+     */
+    public Chord chord(int chordType){
+        long startNanos = TheoryMetrics.ENABLED ? System.nanoTime() : 0L;
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        return chord(registry, registry.checkedChordId(chordType), startNanos);
+    }
+    
+    /**
+     * Generates a chord from a chordType without throwing, for untrusted input.
+     * @param chordType the type of chord to generate (see MusicRegistry). 
+     * @return the generated chord, or the error code.
+     */
+    public ParseResult<Chord> tryChord(String chordType){
+        long startNanos = TheoryMetrics.ENABLED ? System.nanoTime() : 0L;
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        int chordId = registry.chordId(chordType);
+        if(chordId == -1){
+            return ParseResult.failure(ParseResult.UNKNOWN_CHORD_TYPE);
+        }
+        return ParseResult.success(chord(registry, chordId, startNanos));
+    }
+    
+    private Chord chord(MusicRegistry.Snapshot registry, int chordId, long startNanos){
+        Chord chord = new Chord(this, registry.chordIntervals[chordId], registry.chordIntervalIds[chordId],
+                                registry.chordTypes[chordId]);
+        if(TheoryMetrics.ENABLED){
+            TheoryMetrics.record(TheoryMetrics.CHORD, startNanos);
+        }
+        return chord;
     }
 
     /**
@@ -108,38 +310,67 @@ public class Note implements Comparable<Note>  {
      * @return the new note.
      */
     public Note add(String intervalSymbol){
-        if(!Music.Intervals.containsKey(intervalSymbol)){
-            throw new MusicTheoryException("Unknown interval symbol name '" + intervalSymbol + "'");
-        }
-        Interval interval = Music.Intervals.get(intervalSymbol);
-        int noteLetterValue = Music.Notes.get(this.letter);
-        int resultantLetterIndex = (this.letterIndex + interval.degree) % Music.Alphabet.length;
-        String resultantNoteName = Music.Alphabet[resultantLetterIndex];
-        int resultantLetterValue = Music.Notes.get(resultantNoteName);
-
-        int resultantNoteValue = this.value + interval.steps;
-        int newOctave = this.octave;
+        return add(intervalSymbol, null);
+    }
 
-        if (resultantLetterValue <= noteLetterValue) {
-            newOctave += 1;            
+    /**
+     * Adds the passed interval and writes the result into the target note, 
+     * so that no new note is allocated.
+     * @param intervalSymbol the symbol of the interval to add to the note (e.g. m2).
+     * @param target the note to overwrite with the result, or null to create a new note.
+     * @return the target note, or the new note if target was null.
+     */
+    public Note add(String intervalSymbol, Note target){
+        long startNanos = TheoryMetrics.ENABLED ? System.nanoTime() : 0L;
+        int intervalId = SpellingTable.checkedIntervalId(intervalSymbol);
+        Note note = add(intervalId, target);
+        if(TheoryMetrics.ENABLED){
+            TheoryMetrics.record(TheoryMetrics.NOTE_ADD, startNanos);
         }
+        return note;
+    }
+    
+    /**
+     * Returns the shared note after adding the interval.
+     */
+    Note transpose(int intervalId){
+        int spelling = SpellingTable.transpose(letterIndex, accidentals, intervalId);
+        return of(SpellingTable.letterOf(spelling), SpellingTable.accidentalsOf(spelling),
+                  octave + SpellingTable.carryOf(spelling));
+    }
+    
+    /**
+     * Returns the shared note with the same name and octave.
+     */
+    Note share(){
+        return shared ? this : of(letterIndex, accidentals, octave);
+    }
+    
+    boolean isShared(){
+        return shared;
+    }
+    
+    /**
+     * Moves the note to an octave, used by scales and chords on their own notes.
+     */
+    void moveToOctave(int octave){
+        checkModifiable();
+        value += (octave - this.octave) * 12;
+        this.octave = octave;
+    }
+    
+    Note add(int intervalId, Note target){
+        int spelling = SpellingTable.transpose(letterIndex, accidentals, intervalId);
+        int resultantLetterIndex = SpellingTable.letterOf(spelling);
+        int resultantAccidentals = SpellingTable.accidentalsOf(spelling);
+        int newOctave = this.octave + SpellingTable.carryOf(spelling);
+        int resultantNoteValue = this.value + SpellingTable.interval(intervalId).steps;
 
-        resultantLetterValue += (newOctave + 1) * 12;
-
-        int accidentals =  resultantNoteValue - resultantLetterValue;
-
-        if (accidentals != 0) {
-          char accidentalSymbol = accidentals > 0 ? Music.SHARP : Music.FLAT;
-          int numberOfAccidentals = Math.abs(accidentals);
-
-          for (int i = 0; i < numberOfAccidentals; i++) {
-            resultantNoteName += accidentalSymbol;
-          }
+        if(target == null){
+            return new Note(resultantLetterIndex, resultantAccidentals, newOctave, resultantNoteValue);
         }
-
-        Note newNote = new Note(resultantNoteName, newOctave);
-        newNote.setMidiValue(resultantNoteValue);
-        return newNote;
+        target.set(resultantLetterIndex, resultantAccidentals, newOctave, resultantNoteValue);
+        return target;
     }
     
     /**
@@ -162,15 +393,49 @@ public class Note implements Comparable<Note>  {
     public int getOctave(){
         return octave;
     }
+    
+    /**
+     * @return the number of accidentals of the note (sharps are positive, flats are negative).
+     */
+    public int getAccidentals(){
+        return accidentals;
+    }
+    
+    int getLetterIndex(){
+        return letterIndex;
+    }
 
     /**
-     * Copies the Note.
+     * Copies the Note. The copy can always be modified.
      * @return the copy of the note.
      */
     public Note copy(){
-        Note newNote = new Note(name.substring(0), octave);
-        newNote.setMidiValue(value);
-        return newNote;
+        return new Note(letterIndex, accidentals, octave, value);
+    }
+    
+    /**
+     * Returns the same note in another octave. Does not modify this note.
+     * @param octave the octave of the new note.
+     * @return the new note.
+     */
+    public Note withOctave(int octave){
+        return new Note(letterIndex, accidentals, octave, value + (octave - this.octave) * 12);
+    }
+    
+    /**
+     * Returns the note one semitone up (C to C#, Db to D). Does not modify this note.
+     * @return the new note.
+     */
+    public Note raised(){
+        return new Note(letterIndex, accidentals + 1, octave, value + 1);
+    }
+    
+    /**
+     * Returns the note one semitone down (C to Cb, D# to D). Does not modify this note.
+     * @return the new note.
+     */
+    public Note lowered(){
+        return new Note(letterIndex, accidentals - 1, octave, value - 1);
     }
     
     /**
@@ -178,13 +443,10 @@ public class Note implements Comparable<Note>  {
      * @param note the note to move up.
      */
     public static void semitoneUp(Note note){
+        note.checkModifiable();
         note.value++;
-        
-        if (note.name.charAt(note.name.length()-1) == Music.FLAT) {
-            note.name = note.name.substring(0, note.name.length()-1);
-        } else {
-            note.name += Music.SHARP;
-        }
+        note.accidentals++;
+        note.name = SpellingTable.name(note.letterIndex, note.accidentals);
     }
 
     /**
@@ -192,13 +454,10 @@ public class Note implements Comparable<Note>  {
      * @param note the note to move down.
      */
     public static void semitoneDown(Note note){
+        note.checkModifiable();
         note.value--;
-        
-        if (note.name.charAt(note.name.length()-1) == Music.SHARP) {
-            note.name = note.name.substring(0, note.name.length()-1);
-        } else {
-            note.name += Music.FLAT;
-        }
+        note.accidentals--;
+        note.name = SpellingTable.name(note.letterIndex, note.accidentals);
     }
     
     @Override
@@ -206,8 +465,43 @@ public class Note implements Comparable<Note>  {
         return (this.value - otherNote.value);
     }
         
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 31 * hash + this.name.hashCode();
+        hash = 31 * hash + this.octave;
+        hash = 31 * hash + this.value;
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final Note other = (Note) obj;
+        return this.octave == other.octave
+               && this.value == other.value
+               && this.name.equals(other.name);
+    }
+        
     @Override
     public String toString(){
-        return name + String.valueOf(octave) + "[" + String.valueOf(value) + "]";
+        return appendTo(new StringBuilder(8)).toString();
+    }
+    
+    /**
+     * Appends the note in the format of toString (e.g. D#4[63]).
+     * @param builder the builder to append to.
+     * @return the builder.
+     */
+    public StringBuilder appendTo(StringBuilder builder){
+        return builder.append(name).append(octave).append('[').append(value).append(']');
     }
 }
\ No newline at end of file
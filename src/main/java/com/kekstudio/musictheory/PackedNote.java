@@ -0,0 +1,150 @@
+package com.kekstudio.musictheory;
+
+/**
+ * Primitive note encoding.
+ * Packs the letter index, the signed accidental count and the octave of a note into one int:
+ * bits 0-2 hold the letter index in Music.Alphabet, bits 3-7 hold the accidentals
+ * (offset by 16) and the remaining bits hold the signed octave. The MIDI value is derived.
+ * @author Andy671
+ */
+public final class PackedNote {
+
+    private static final int LETTER_MASK = 0x7;
+    private static final int ACCIDENTALS_SHIFT = 3;
+    private static final int ACCIDENTALS_MASK = 0x1F;
+    private static final int ACCIDENTALS_OFFSET = 16;
+    private static final int OCTAVE_SHIFT = 8;
+
+    private PackedNote(){
+    }
+
+    /**
+     * Packs a spelled note.
+     * @param letterIndex the index of the letter in Music.Alphabet.
+     * @param accidentals signed accidental count (-16..15, sharps are positive).
+     * @param octave the octave of the note.
+     * @return the packed note.
+     */
+    public static int pack(int letterIndex, int accidentals, int octave){
+        if(letterIndex < 0 || letterIndex >= Music.Alphabet.length){
+            throw new MusicTheoryException("Wrong letter index '" + letterIndex + "'");
+        }
+        if(accidentals < -ACCIDENTALS_OFFSET || accidentals >= ACCIDENTALS_OFFSET){
+            throw new MusicTheoryException("Too many accidentals to pack: " + accidentals);
+        }
+        return letterIndex
+               | ((accidentals + ACCIDENTALS_OFFSET) << ACCIDENTALS_SHIFT)
+               | (octave << OCTAVE_SHIFT);
+    }
+
+    /**
+     * Packs a note.
+     * @param note the note to pack.
+     * @return the packed note.
+     */
+    public static int pack(Note note){
+        return pack(note.getLetterIndex(), note.getAccidentals(), note.getOctave());
+    }
+
+    /**
+     * Packs an array of notes.
+     * @param notes the notes to pack.
+     * @return the packed notes.
+     */
+    public static int[] pack(Note[] notes){
+        int[] packedNotes = new int[notes.length];
+        for(int i = 0; i < notes.length; i++){
+            packedNotes[i] = pack(notes[i]);
+        }
+        return packedNotes;
+    }
+
+    /**
+     * @param packedNote the packed note.
+     * @return the index of the letter in Music.Alphabet.
+     */
+    public static int letterIndex(int packedNote){
+        return packedNote & LETTER_MASK;
+    }
+
+    /**
+     * @param packedNote the packed note.
+     * @return the signed accidental count.
+     */
+    public static int accidentals(int packedNote){
+        return ((packedNote >> ACCIDENTALS_SHIFT) & ACCIDENTALS_MASK) - ACCIDENTALS_OFFSET;
+    }
+
+    /**
+     * @param packedNote the packed note.
+     * @return the octave.
+     */
+    public static int octave(int packedNote){
+        return packedNote >> OCTAVE_SHIFT;
+    }
+
+    /**
+     * @param packedNote the packed note.
+     * @return the midi value.
+     */
+    public static int midiValue(int packedNote){
+        return SpellingTable.letterValue(letterIndex(packedNote)) + accidentals(packedNote)
+               + (octave(packedNote) + 1) * 12;
+    }
+
+    /**
+     * @param packedNote the packed note.
+     * @return the name of the note (e.g. F#).
+     */
+    public static String name(int packedNote){
+        return SpellingTable.name(letterIndex(packedNote), accidentals(packedNote));
+    }
+
+    /**
+     * Adds an interval to a packed note.
+     * @param packedNote the packed note.
+     * @param intervalSymbol the symbol of the interval to add to the note (e.g. m2).
+     * @return the packed result.
+     */
+    public static int add(int packedNote, String intervalSymbol){
+        int intervalId = SpellingTable.checkedIntervalId(intervalSymbol);
+        return add(packedNote, intervalId);
+    }
+
+    static int add(int packedNote, int intervalId){
+        int spelling = SpellingTable.transpose(letterIndex(packedNote), accidentals(packedNote), intervalId);
+        return pack(SpellingTable.letterOf(spelling),
+                    SpellingTable.accidentalsOf(spelling),
+                    octave(packedNote) + SpellingTable.carryOf(spelling));
+    }
+
+    /**
+     * Unpacks a note.
+     * @param packedNote the packed note.
+     * @return the note.
+     */
+    public static Note toNote(int packedNote){
+        return new Note(letterIndex(packedNote), accidentals(packedNote), octave(packedNote), midiValue(packedNote));
+    }
+
+    /**
+     * Unpacks an array of notes.
+     * @param packedNotes the packed notes.
+     * @return the notes.
+     */
+    public static Note[] toNotes(int[] packedNotes){
+        Note[] notes = new Note[packedNotes.length];
+        for(int i = 0; i < packedNotes.length; i++){
+            notes[i] = toNote(packedNotes[i]);
+        }
+        return notes;
+    }
+
+    /**
+     * @param packedNote the packed note.
+     * @return the note in the same format as Note.toString (e.g. D#4[63]).
+     */
+    public static String toString(int packedNote){
+        return name(packedNote) + octave(packedNote) + "[" + midiValue(packedNote) + "]";
+    }
+}
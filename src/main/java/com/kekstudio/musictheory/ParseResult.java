@@ -0,0 +1,101 @@
+package com.kekstudio.musictheory;
+
+/**
+ * Result of a tryParse-style method: either a value, or an error code.
+ * Failures are shared instances, one per error code, and carry no message built from the input,
+ * so rejecting invalid input costs no more than accepting it.
+ * @param <T> the type of the value.
+ * @author Andy671
+ */
+public final class ParseResult<T> {
+
+    public static final int OK = 0;
+    public static final int EMPTY_INPUT = 1;
+    public static final int WRONG_NOTE_NAME = 2;
+    public static final int WRONG_ACCIDENTAL = 3;
+    public static final int UNKNOWN_SCALE_TYPE = 4;
+    public static final int UNKNOWN_CHORD_TYPE = 5;
+    public static final int WRONG_DEGREE = 6;
+    public static final int UNKNOWN_CHORD_SUFFIX = 7;
+
+    private static final String[] MESSAGES = {
+        "OK",
+        "Empty input",
+        "Wrong note name",
+        "Wrong note accidental name",
+        "Unknown scale type name",
+        "Unknown chord type name",
+        "Wrong Roman numeral",
+        "Unknown chord suffix"
+    };
+
+    private static final ParseResult<?>[] FAILURES = new ParseResult<?>[MESSAGES.length];
+
+    static{
+        for(int error = EMPTY_INPUT; error < FAILURES.length; error++){
+            FAILURES[error] = new ParseResult<>(null, error);
+        }
+    }
+
+    private final T value;
+    private final int error;
+
+    private ParseResult(T value, int error){
+        this.value = value;
+        this.error = error;
+    }
+
+    static <T> ParseResult<T> success(T value){
+        return new ParseResult<>(value, OK);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ParseResult<T> failure(int error){
+        return (ParseResult<T>) FAILURES[error];
+    }
+
+    /**
+     * @return true if the input was valid.
+     */
+    public boolean isValid(){
+        return error == OK;
+    }
+
+    /**
+     * @return the error code, or OK.
+     */
+    public int getError(){
+        return error;
+    }
+
+    /**
+     * @return the message of the error code (e.g. Unknown chord type name).
+     */
+    public String getErrorMessage(){
+        return MESSAGES[error];
+    }
+
+    /**
+     * Returns the value, or throws a MusicTheoryParseException without stack trace if the input was invalid.
+     * @return the value.
+     */
+    public T getValue(){
+        if(error != OK){
+            throw new MusicTheoryParseException(error, MESSAGES[error]);
+        }
+        return value;
+    }
+
+    /**
+     * @param other the value to return if the input was invalid.
+     * @return the value, or other.
+     */
+    public T orElse(T other){
+        return error == OK ? value : other;
+    }
+
+    @Override
+    public String toString(){
+        return error == OK ? String.valueOf(value) : MESSAGES[error];
+    }
+}
@@ -0,0 +1,223 @@
+package com.kekstudio.musictheory;
+
+/**
+ * Index of the pitch class masks of all chords and scales.
+ * Every (root, type) pair of the registered chord and scale types (see MusicRegistry) is stored
+ * as a 12-bit mask (bit n for pitch class n, 0 for C). Chords and scales containing a set of pitch classes
+ * are looked up in precomputed tables, the other queries scan the masks. The tables are built on first use,
+ * and rebuilt when types are registered.
+ * Roots are spelled as in Music.ScaleAlterations for major keys.
+ * @author Andy671
+ */
+public final class PitchClassIndex {
+
+    private static final int PITCH_CLASSES = 12;
+    private static final int MASK_COUNT = 1 << PITCH_CLASSES;
+    private static final int[] NONE = new int[0];
+
+    private static final String[] ROOTS = Music.ScaleAlterations.get("major").clone();
+
+    private static volatile Tables tables;
+
+    private PitchClassIndex(){
+    }
+
+    /**
+     * Computes the pitch class mask of notes.
+     * @param notes the notes.
+     * @return the mask with bit n set for every pitch class n.
+     */
+    public static int pitchClassMask(Note... notes){
+        int mask = 0;
+        for(Note note : notes){
+            mask |= 1 << pitchClass(note.getMidiValue());
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the chords containing all pitch classes of the mask.
+     * @param mask the pitch class mask (see pitchClassMask).
+     * @return the matching chords.
+     */
+    public static PitchClassMatches<Chord> chordsContaining(int mask){
+        Tables tables = tables();
+        return new PitchClassMatches<>(true, tables.registry.chordTypes, tables.chordSupersets[checkMask(mask)]);
+    }
+
+    /**
+     * Returns the chords whose pitch classes are all in the mask.
+     * @param mask the pitch class mask (see pitchClassMask).
+     * @return the matching chords.
+     */
+    public static PitchClassMatches<Chord> chordsWithin(int mask){
+        Tables tables = tables();
+        return new PitchClassMatches<>(true, tables.registry.chordTypes, subsets(tables.chordMasks, checkMask(mask)));
+    }
+
+    /**
+     * Returns the chords with exactly the pitch classes of the mask.
+     * @param mask the pitch class mask (see pitchClassMask).
+     * @return the matching chords.
+     */
+    public static PitchClassMatches<Chord> chordsMatching(int mask){
+        Tables tables = tables();
+        return new PitchClassMatches<>(true, tables.registry.chordTypes,
+                                      exact(tables.chordMasks, tables.chordSupersets, checkMask(mask)));
+    }
+
+    /**
+     * Returns the scales containing all pitch classes of the mask.
+     * @param mask the pitch class mask (see pitchClassMask).
+     * @return the matching scales.
+     */
+    public static PitchClassMatches<Scale> scalesContaining(int mask){
+        Tables tables = tables();
+        return new PitchClassMatches<>(false, tables.registry.scaleTypes, tables.scaleSupersets[checkMask(mask)]);
+    }
+
+    /**
+     * Returns the scales whose pitch classes are all in the mask.
+     * @param mask the pitch class mask (see pitchClassMask).
+     * @return the matching scales.
+     */
+    public static PitchClassMatches<Scale> scalesWithin(int mask){
+        Tables tables = tables();
+        return new PitchClassMatches<>(false, tables.registry.scaleTypes, subsets(tables.scaleMasks, checkMask(mask)));
+    }
+
+    /**
+     * Returns the scales with exactly the pitch classes of the mask.
+     * @param mask the pitch class mask (see pitchClassMask).
+     * @return the matching scales.
+     */
+    public static PitchClassMatches<Scale> scalesMatching(int mask){
+        Tables tables = tables();
+        return new PitchClassMatches<>(false, tables.registry.scaleTypes,
+                                      exact(tables.scaleMasks, tables.scaleSupersets, checkMask(mask)));
+    }
+
+    static String rootName(int entry){
+        return ROOTS[rootPitchClass(entry)];
+    }
+
+    static int rootPitchClass(int entry){
+        return entry % PITCH_CLASSES;
+    }
+
+    static int typeIndex(int entry){
+        return entry / PITCH_CLASSES;
+    }
+
+    private static Tables tables(){
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        Tables current = tables;
+        if(current == null || current.registry != registry){
+            current = new Tables(registry);
+            tables = current;
+        }
+        return current;
+    }
+
+    private static int checkMask(int mask){
+        if(mask < 0 || mask >= MASK_COUNT){
+            throw new MusicTheoryException("Wrong pitch class mask: " + mask);
+        }
+        return mask;
+    }
+
+    private static int pitchClass(int midiValue){
+        int pitchClass = midiValue % PITCH_CLASSES;
+        return pitchClass < 0 ? pitchClass + PITCH_CLASSES : pitchClass;
+    }
+
+    private static int[] subsets(int[] masks, int mask){
+        int count = 0;
+        for(int entryMask : masks){
+            if((entryMask & ~mask) == 0) count++;
+        }
+        int[] entries = new int[count];
+        int index = 0;
+        for(int entry = 0; entry < masks.length; entry++){
+            if((masks[entry] & ~mask) == 0) entries[index++] = entry;
+        }
+        return entries;
+    }
+
+    // The exact matches are the supersets of the mask with the same mask.
+    private static int[] exact(int[] masks, int[][] supersets, int mask){
+        int[] candidates = supersets[mask];
+        int count = 0;
+        for(int entry : candidates){
+            if(masks[entry] == mask) count++;
+        }
+        if(count == candidates.length){
+            return candidates;
+        }
+        int[] entries = new int[count];
+        int index = 0;
+        for(int entry : candidates){
+            if(masks[entry] == mask) entries[index++] = entry;
+        }
+        return entries;
+    }
+
+    // Masks of the entries, an entry being typeIndex * 12 + root.
+    private static int[] masks(String[][] typeIntervals){
+        int[] masks = new int[typeIntervals.length * PITCH_CLASSES];
+        for(int type = 0; type < typeIntervals.length; type++){
+            int relativeMask = 1;
+            for(String interval : typeIntervals[type]){
+                relativeMask |= 1 << (Music.Intervals.get(interval).steps % PITCH_CLASSES);
+            }
+            for(int root = 0; root < PITCH_CLASSES; root++){
+                masks[type * PITCH_CLASSES + root] =
+                        ((relativeMask << root) | (relativeMask >>> (PITCH_CLASSES - root))) & (MASK_COUNT - 1);
+            }
+        }
+        return masks;
+    }
+
+    // supersets[mask] holds the entries containing all pitch classes of mask, in entry order.
+    // Every entry is added to the lists of all submasks of its mask.
+    private static int[][] supersets(int[] masks){
+        int[] counts = new int[MASK_COUNT];
+        for(int mask : masks){
+            for(int submask = mask; ; submask = (submask - 1) & mask){
+                counts[submask]++;
+                if(submask == 0) break;
+            }
+        }
+
+        int[][] supersets = new int[MASK_COUNT][];
+        for(int mask = 0; mask < MASK_COUNT; mask++){
+            supersets[mask] = counts[mask] == 0 ? NONE : new int[counts[mask]];
+            counts[mask] = 0;
+        }
+        for(int entry = 0; entry < masks.length; entry++){
+            int mask = masks[entry];
+            for(int submask = mask; ; submask = (submask - 1) & mask){
+                supersets[submask][counts[submask]++] = entry;
+                if(submask == 0) break;
+            }
+        }
+        return supersets;
+    }
+
+    private static final class Tables {
+
+        private final MusicRegistry.Snapshot registry;
+        private final int[] chordMasks;
+        private final int[] scaleMasks;
+        private final int[][] chordSupersets;
+        private final int[][] scaleSupersets;
+
+        Tables(MusicRegistry.Snapshot registry){
+            this.registry = registry;
+            chordMasks = masks(registry.chordIntervals);
+            scaleMasks = masks(registry.scaleIntervals);
+            chordSupersets = supersets(chordMasks);
+            scaleSupersets = supersets(scaleMasks);
+        }
+    }
+}
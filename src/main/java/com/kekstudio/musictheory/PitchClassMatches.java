@@ -0,0 +1,60 @@
+package com.kekstudio.musictheory;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Result of a PitchClassIndex query.
+ * The roots and types of the matches are known without building them,
+ * a new chord or scale is built on every access to an element.
+ * @author Andy671
+ * @param <T> Chord or Scale.
+ */
+public final class PitchClassMatches<T extends Scale> extends AbstractList<T> implements RandomAccess {
+
+    private final boolean chords;
+    private final String[] types;
+    private final int[] entries;
+
+    PitchClassMatches(boolean chords, String[] types, int[] entries){
+        this.chords = chords;
+        this.types = types;
+        this.entries = entries;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index){
+        Note rootNote = Note.of(getRoot(index));
+        return (T) (chords ? rootNote.chord(getType(index)) : rootNote.scale(getType(index)));
+    }
+
+    @Override
+    public int size(){
+        return entries.length;
+    }
+
+    /**
+     * @param index the index of the match.
+     * @return the name of the root note of the match (e.g. Eb).
+     */
+    public String getRoot(int index){
+        return PitchClassIndex.rootName(entries[index]);
+    }
+
+    /**
+     * @param index the index of the match.
+     * @return the pitch class of the root note of the match (0 for C).
+     */
+    public int getRootPitchClass(int index){
+        return PitchClassIndex.rootPitchClass(entries[index]);
+    }
+
+    /**
+     * @param index the index of the match.
+     * @return the type of the match (see MusicRegistry).
+     */
+    public String getType(int index){
+        return types[PitchClassIndex.typeIndex(entries[index])];
+    }
+}
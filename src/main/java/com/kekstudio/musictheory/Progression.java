@@ -0,0 +1,227 @@
+package com.kekstudio.musictheory;
+
+import java.util.List;
+
+/**
+ * Chord progression in a key.
+ * Resolves all Roman numerals of the progression against the key scale in one pass
+ * (e.g. "I vi IV V", "ii7 | V7 | Imaj7") and keeps the chords in an array.
+ * The progression is not modified by its operations, they return new progressions.
+ * @author Andy671
+ */
+public class Progression {
+
+    private final Key key;
+    private final RomanNumeral[] romanNumerals;
+    private final Chord[] chords;
+
+    /**
+     * Initializes the progression with a key and Roman numerals.
+     * @param key the key of the progression.
+     * @param romanNumerals Roman numerals separated by spaces, commas, bars or dashes (e.g. "I vi IV V").
+     */
+    public Progression(Key key, String romanNumerals){
+        this(key, RomanNumeral.parseAll(romanNumerals));
+    }
+
+    /**
+     * Initializes the progression with a key and Roman numerals.
+     * @param key the key of the progression.
+     * @param romanNumerals the Roman numerals (e.g. ii7, V7, Imaj7).
+     */
+    public Progression(Key key, List<String> romanNumerals){
+        this(key, parse(romanNumerals));
+    }
+
+    /**
+     * Initializes the progression with a key and parsed Roman numerals.
+     * @param key the key of the progression.
+     * @param romanNumerals the Roman numerals.
+     */
+    public Progression(Key key, RomanNumeral[] romanNumerals){
+        this(key, romanNumerals.clone(), resolve(key, romanNumerals));
+    }
+
+    private Progression(Key key, RomanNumeral[] romanNumerals, Chord[] chords){
+        this.key = key;
+        this.romanNumerals = romanNumerals;
+        this.chords = chords;
+    }
+
+    private static RomanNumeral[] parse(List<String> romanNumerals){
+        RomanNumeral[] parsed = new RomanNumeral[romanNumerals.size()];
+        for(int i = 0; i < parsed.length; i++){
+            parsed[i] = RomanNumeral.parse(romanNumerals.get(i));
+        }
+        return parsed;
+    }
+
+    private static Chord[] resolve(Key key, RomanNumeral[] romanNumerals){
+        Chord[] chords = new Chord[romanNumerals.length];
+        for(int i = 0; i < romanNumerals.length; i++){
+            chords[i] = key.chord(romanNumerals[i]);
+        }
+        return chords;
+    }
+
+    /**
+     * Returns the same progression in another key. The inversions of the chords are kept.
+     * @param otherKey the key to transpose to.
+     * @return the new progression.
+     */
+    public Progression transpose(Key otherKey){
+        Chord[] transposed = resolve(otherKey, romanNumerals);
+        for(int i = 0; i < transposed.length; i++){
+            if(chords[i].getPosition() != 0){
+                transposed[i] = transposed[i].withInversion(chords[i].getPosition());
+            }
+        }
+        return new Progression(otherKey, romanNumerals, transposed);
+    }
+
+    /**
+     * Returns the progression with other voicings of its chords.
+     */
+    Progression withChords(Chord[] voicedChords){
+        return new Progression(key, romanNumerals, voicedChords);
+    }
+
+    /**
+     * Returns the progression with all chords in one octave, keeping their inversions.
+     * @param octave
+     * @return the new progression.
+     */
+    public Progression withOctave(int octave){
+        Chord[] voiced = new Chord[chords.length];
+        for(int i = 0; i < chords.length; i++){
+            voiced[i] = chords[i].withOctave(octave);
+        }
+        return new Progression(key, romanNumerals, voiced);
+    }
+
+    /**
+     * Returns the progression with all chords in the same inversion.
+     * @param position the inversion of every chord.
+     * @return the new progression.
+     */
+    public Progression withInversion(int position){
+        int[] positions = new int[chords.length];
+        for(int i = 0; i < positions.length; i++){
+            positions[i] = position;
+        }
+        return withInversions(positions);
+    }
+
+    /**
+     * Returns the progression re-voiced with an inversion for every chord.
+     * @param positions the inversions, one per chord.
+     * @return the new progression.
+     */
+    public Progression withInversions(int[] positions){
+        if(positions.length != chords.length){
+            throw new MusicTheoryException("Expected " + chords.length + " inversions, got " + positions.length);
+        }
+        Chord[] voiced = new Chord[chords.length];
+        for(int i = 0; i < chords.length; i++){
+            voiced[i] = chords[i].getPosition() == positions[i] ? chords[i].copy() : chords[i].withInversion(positions[i]);
+        }
+        return new Progression(key, romanNumerals, voiced);
+    }
+
+    /**
+     * Returns all inversions of a chord of the progression.
+     * @param index the index of the chord.
+     * @return the chords, the root position first.
+     */
+    public Chord[] getInversions(int index){
+        Chord chord = chords[index];
+        Chord[] inversions = new Chord[chord.size()];
+        for(int position = 0; position < inversions.length; position++){
+            inversions[position] = chord.getPosition() == position ? chord.copy() : chord.withInversion(position);
+        }
+        return inversions;
+    }
+
+    /**
+     * Packs the notes of every chord (see PackedNote).
+     * @return the packed notes, one array per chord.
+     */
+    public int[][] toPackedArray(){
+        int[][] packedChords = new int[chords.length][];
+        for(int i = 0; i < chords.length; i++){
+            packedChords[i] = chords[i].toPackedArray();
+        }
+        return packedChords;
+    }
+
+    /**
+     * Returns copies of the chords, which can be modified without changing the progression.
+     * @return the new chords.
+     */
+    public Chord[] getChords(){
+        Chord[] copies = new Chord[chords.length];
+        for(int i = 0; i < chords.length; i++){
+            copies[i] = chords[i].copy();
+        }
+        return copies;
+    }
+
+    /**
+     * @param index the index of the chord.
+     * @return a copy of the chord at the given index.
+     */
+    public Chord getChord(int index){
+        return chords[index].copy();
+    }
+
+    /**
+     * Returns the chords without copying them, for the readers of the package. They must not be modified.
+     */
+    Chord[] chords(){
+        return chords;
+    }
+
+    /**
+     * @param index the index of the chord.
+     * @return the Roman numeral of the chord at the given index.
+     */
+    public RomanNumeral getRomanNumeral(int index){
+        return romanNumerals[index];
+    }
+
+    /**
+     * @return the number of chords.
+     */
+    public int size(){
+        return chords.length;
+    }
+
+    /**
+     * @return the key of the progression.
+     */
+    public Key getKey(){
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(16 * (chords.length + 1))).toString();
+    }
+
+    /**
+     * Appends the progression in the format of toString (e.g. C major progression {C I, Am vi}).
+     * @param builder the builder to append to.
+     * @return the builder.
+     */
+    public StringBuilder appendTo(StringBuilder builder){
+        builder.append(key.getName()).append(' ').append(key.getType()).append(" progression {");
+        for(int i = 0; i < chords.length; i++){
+            if(i > 0){
+                builder.append(", ");
+            }
+            builder.append(chords[i].getName()).append(' ').append(chords[i].getTheoryDegree());
+        }
+        return builder.append('}');
+    }
+
+}
@@ -0,0 +1,403 @@
+package com.kekstudio.musictheory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Memory-mapped reader of chord progressions written by ProgressionStoreWriter.
+ * Every chord is stored as one int holding the spelling and octave of the root, the inversion, the index
+ * of the chord type and the index of the Roman numeral (see Chord.getTheoryDegree). The type and Roman
+ * numeral names are kept once in the tables of the file. The chords are read by index from the mapped
+ * buffer, so the progressions stay off the heap until getChord or getChords rebuild Chord objects.
+ * The added basses of slash chords (see Chord.getAddedBass) are kept in a table of their own, read to the heap.
+ * The reader is thread-safe.
+ * <p>
+ * File layout, big-endian: the header (magic, version), the chord ints, the progression table
+ * (progression count, chord count, first chord and key of every progression), the names of the chord types
+ * with their intervals, the Roman numerals and the scale types, the added basses (count, then the chord index
+ * and the spelling of every bass), then the offset of the progression table and the magic again.
+ * @author Andy671
+ */
+public class ProgressionStore implements Closeable {
+
+    static final int MAGIC = 0x4D545053;    // MTPS
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 8;
+    static final int TRAILER_LENGTH = 12;
+
+    // Chord int: root spelling (bits 0-9), inversion (bits 10-12), type (bits 13-21), Roman numeral (bits 22-31).
+    static final int ROOT_BITS = 10;
+    static final int INVERSION_SHIFT = 10;
+    static final int INVERSION_MASK = 0x7;
+    static final int TYPE_SHIFT = 13;
+    static final int TYPE_MASK = 0x1FF;
+    static final int NUMERAL_SHIFT = 22;
+    static final int NUMERAL_MASK = 0x3FF;
+
+    // Root spelling: letter (bits 0-2), accidentals + 4 (bits 3-5), octave + 1 (bits 6-9).
+    static final int ACCIDENTALS_SHIFT = 3;
+    static final int ACCIDENTALS_OFFSET = 4;
+    static final int OCTAVE_SHIFT = 6;
+    static final int OCTAVE_OFFSET = 1;
+
+    // Added bass int: bass spelling (bits 0-9), or NO_BASS.
+    static final int NO_BASS = -1;
+
+    // Key int: tonic spelling (bits 0-9), scale type (bits 10-31), or NO_KEY.
+    static final int NO_KEY = -1;
+
+    private final RandomAccessFile file;
+    private final IntBuffer chords;
+    private final IntBuffer progressions;
+    private final int progressionCount;
+    private final int chordCount;
+
+    private final String[] types;
+    private final String[][] typeIntervals;
+    private final int[][] typeIntervalIds;
+    private final String[] romanNumerals;
+    private final String[] scaleTypes;
+    private final int[] bassChords;
+    private final int[] bassSpellings;
+
+    /**
+     * Opens a store file and maps it.
+     * @param file the store file.
+     * @throws IOException if the file can not be read.
+     */
+    public ProgressionStore(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        try{
+            FileChannel channel = this.file.getChannel();
+            if(channel.size() > Integer.MAX_VALUE){
+                throw new MusicTheoryException("Progression store too big to map: " + channel.size() + " bytes");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Layout layout = new Layout(buffer);
+            chords = layout.chords;
+            progressions = layout.progressions;
+            progressionCount = layout.progressionCount;
+            chordCount = layout.chordCount;
+            types = layout.types;
+            typeIntervals = layout.typeIntervals;
+            typeIntervalIds = layout.typeIntervalIds;
+            romanNumerals = layout.romanNumerals;
+            scaleTypes = layout.scaleTypes;
+            bassChords = layout.bassChords;
+            bassSpellings = layout.bassSpellings;
+        }catch(IOException | RuntimeException e){
+            this.file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a store from a buffer, from its position to its limit.
+     * @param buffer the content of the store file.
+     */
+    public ProgressionStore(ByteBuffer buffer){
+        this.file = null;
+        Layout layout;
+        try{
+            layout = new Layout(buffer.slice());
+        }catch(IOException e){
+            throw new MusicTheoryException("Wrong progression store", e);
+        }
+        chords = layout.chords;
+        progressions = layout.progressions;
+        progressionCount = layout.progressionCount;
+        chordCount = layout.chordCount;
+        types = layout.types;
+        typeIntervals = layout.typeIntervals;
+        typeIntervalIds = layout.typeIntervalIds;
+        romanNumerals = layout.romanNumerals;
+        scaleTypes = layout.scaleTypes;
+        bassChords = layout.bassChords;
+        bassSpellings = layout.bassSpellings;
+    }
+
+    /**
+     * @return the number of progressions.
+     */
+    public int getProgressionCount(){
+        return progressionCount;
+    }
+
+    /**
+     * @return the number of chords of all progressions.
+     */
+    public int getChordCount(){
+        return chordCount;
+    }
+
+    /**
+     * Returns the index of the first chord of a progression. The chords of progression p are
+     * the indexes from getChordStart(p) to getChordEnd(p) excluded.
+     * @param progression the index of the progression.
+     * @return the index of the first chord.
+     */
+    public int getChordStart(int progression){
+        return progressions.get(2 * checkProgression(progression));
+    }
+
+    /**
+     * @param progression the index of the progression.
+     * @return the index after the last chord of the progression.
+     */
+    public int getChordEnd(int progression){
+        checkProgression(progression);
+        return progression + 1 < progressionCount ? progressions.get(2 * (progression + 1)) : chordCount;
+    }
+
+    /**
+     * @param progression the index of the progression.
+     * @return the key of the progression, or null if it was written without key.
+     */
+    public Key getKey(int progression){
+        int key = progressions.get(2 * checkProgression(progression) + 1);
+        if(key == NO_KEY){
+            return null;
+        }
+        int spelling = key & ((1 << ROOT_BITS) - 1);
+        return new Key(SpellingTable.name(letter(spelling), accidentals(spelling)), scaleTypes[key >>> ROOT_BITS], false);
+    }
+
+    /**
+     * @param chord the index of the chord.
+     * @return the name of the root (e.g. F#).
+     */
+    public String getRootName(int chord){
+        int record = record(chord);
+        return SpellingTable.name(letter(record), accidentals(record));
+    }
+
+    /**
+     * @param chord the index of the chord.
+     * @return the midi value of the root.
+     */
+    public int getRootMidiValue(int chord){
+        int record = record(chord);
+        return SpellingTable.letterValue(letter(record)) + accidentals(record) + (octave(record) + 1) * 12;
+    }
+
+    /**
+     * @param chord the index of the chord.
+     * @return the chord type (e.g. m7).
+     */
+    public String getType(int chord){
+        return types[(record(chord) >>> TYPE_SHIFT) & TYPE_MASK];
+    }
+
+    /**
+     * @param chord the index of the chord.
+     * @return the index of the chord type in this store, equal for equal types.
+     */
+    public int getTypeIndex(int chord){
+        return (record(chord) >>> TYPE_SHIFT) & TYPE_MASK;
+    }
+
+    /**
+     * @param chord the index of the chord.
+     * @return the inversion of the chord (see Chord.getPosition).
+     */
+    public int getInversion(int chord){
+        return (record(chord) >>> INVERSION_SHIFT) & INVERSION_MASK;
+    }
+
+    /**
+     * @param chord the index of the chord.
+     * @return the Roman numeral of the chord (see Chord.getTheoryDegree), empty if it has none.
+     */
+    public String getRomanNumeral(int chord){
+        return romanNumerals[record(chord) >>> NUMERAL_SHIFT];
+    }
+
+    /**
+     * @param chord the index of the chord.
+     * @return the name of the added bass (see Chord.getAddedBass), or null if the chord has none.
+     */
+    public String getAddedBassName(int chord){
+        int spelling = bassSpelling(chord);
+        return spelling != NO_BASS ? SpellingTable.name(letter(spelling), accidentals(spelling)) : null;
+    }
+
+    /**
+     * Rebuilds a chord from its root, type, inversion and added bass. Voicings are not stored: the root keeps
+     * its octave and the tones from the bass of the inversion on are below it (see Chord.withBassTone),
+     * as in the chords of ChordSymbol.
+     * @param chord the index of the chord.
+     * @return the new chord.
+     */
+    public Chord getChord(int chord){
+        int record = record(chord);
+        int type = (record >>> TYPE_SHIFT) & TYPE_MASK;
+        Chord rebuilt = new Chord(Note.of(letter(record), accidentals(record), octave(record)),
+                                  typeIntervals[type], typeIntervalIds[type], types[type]);
+        int inversion = (record >>> INVERSION_SHIFT) & INVERSION_MASK;
+        if(inversion != 0){
+            rebuilt = rebuilt.withBassTone(Chord.bassTone(inversion, rebuilt.size()));
+        }
+        rebuilt.setRomanNumeral(romanNumerals[record >>> NUMERAL_SHIFT]);
+        int bass = bassSpelling(chord);
+        if(bass != NO_BASS){
+            Note bassNote = Note.of(letter(bass), accidentals(bass), octave(bass));
+            rebuilt = rebuilt.withNotes(rebuilt.notes, rebuilt.getPosition(), bassNote);
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Rebuilds the chords of a progression (see getChord).
+     * @param progression the index of the progression.
+     * @return the new chords.
+     */
+    public Chord[] getChords(int progression){
+        int start = getChordStart(progression);
+        Chord[] rebuilt = new Chord[getChordEnd(progression) - start];
+        for(int i = 0; i < rebuilt.length; i++){
+            rebuilt[i] = getChord(start + i);
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Closes the file if the store opened it.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if(file != null){
+            file.close();
+        }
+    }
+
+    static int letter(int spelling){
+        return spelling & 0x7;
+    }
+
+    static int accidentals(int spelling){
+        return ((spelling >>> ACCIDENTALS_SHIFT) & 0x7) - ACCIDENTALS_OFFSET;
+    }
+
+    static int octave(int spelling){
+        return ((spelling >>> OCTAVE_SHIFT) & 0xF) - OCTAVE_OFFSET;
+    }
+
+    private int record(int chord){
+        if(chord < 0 || chord >= chordCount){
+            throw new MusicTheoryException("Out of range chord index: " + chord);
+        }
+        return chords.get(chord);
+    }
+
+    // The added basses are sorted by chord index.
+    private int bassSpelling(int chord){
+        if(chord < 0 || chord >= chordCount){
+            throw new MusicTheoryException("Out of range chord index: " + chord);
+        }
+        int index = Arrays.binarySearch(bassChords, chord);
+        return index >= 0 ? bassSpellings[index] : NO_BASS;
+    }
+
+    private int checkProgression(int progression){
+        if(progression < 0 || progression >= progressionCount){
+            throw new MusicTheoryException("Out of range progression index: " + progression);
+        }
+        return progression;
+    }
+
+    // Sections of a store buffer, the tables being read to the heap.
+    private static final class Layout {
+
+        private final IntBuffer chords;
+        private final IntBuffer progressions;
+        private final int progressionCount;
+        private final int chordCount;
+        private final String[] types;
+        private final String[][] typeIntervals;
+        private final int[][] typeIntervalIds;
+        private final String[] romanNumerals;
+        private final String[] scaleTypes;
+        private final int[] bassChords;
+        private final int[] bassSpellings;
+
+        Layout(ByteBuffer buffer) throws IOException {
+            int size = buffer.limit();
+            if(size < HEADER_LENGTH + TRAILER_LENGTH || buffer.getInt(0) != MAGIC || buffer.getInt(size - 4) != MAGIC){
+                throw new MusicTheoryException("Wrong progression store: missing magic number");
+            }
+            if(buffer.getInt(4) != VERSION){
+                throw new MusicTheoryException("Unsupported progression store version: " + buffer.getInt(4));
+            }
+            long tableOffset = buffer.getLong(size - TRAILER_LENGTH);
+            if(tableOffset < HEADER_LENGTH || tableOffset + 8 > size - TRAILER_LENGTH){
+                throw new MusicTheoryException("Wrong progression store: table offset " + tableOffset);
+            }
+            progressionCount = buffer.getInt((int) tableOffset);
+            chordCount = buffer.getInt((int) tableOffset + 4);
+            long namesOffset = tableOffset + 8 + 8L * progressionCount;
+            if(progressionCount < 0 || chordCount < 0 || HEADER_LENGTH + 4L * chordCount != tableOffset
+                    || namesOffset > size - TRAILER_LENGTH){
+                throw new MusicTheoryException("Wrong progression store: " + progressionCount + " progressions, "
+                                               + chordCount + " chords");
+            }
+            chords = region(buffer, HEADER_LENGTH, 4 * chordCount).asIntBuffer();
+            progressions = region(buffer, (int) tableOffset + 8, 8 * progressionCount).asIntBuffer();
+
+            ByteBuffer namesBuffer = region(buffer, (int) namesOffset, size - TRAILER_LENGTH - (int) namesOffset);
+            byte[] names = new byte[namesBuffer.remaining()];
+            namesBuffer.get(names);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(names));
+            types = new String[in.readInt()];
+            typeIntervals = new String[types.length][];
+            typeIntervalIds = new int[types.length][];
+            for(int type = 0; type < types.length; type++){
+                types[type] = in.readUTF().intern();
+                typeIntervals[type] = new String[in.readUnsignedByte()];
+                typeIntervalIds[type] = new int[typeIntervals[type].length];
+                for(int i = 0; i < typeIntervals[type].length; i++){
+                    typeIntervals[type][i] = in.readUTF().intern();
+                    typeIntervalIds[type][i] = SpellingTable.checkedIntervalId(typeIntervals[type][i]);
+                }
+            }
+            romanNumerals = readNames(in);
+            scaleTypes = readNames(in);
+            int bassCount = in.readInt();
+            if(bassCount < 0 || bassCount > chordCount){
+                throw new MusicTheoryException("Wrong progression store: " + bassCount + " added basses");
+            }
+            bassChords = new int[bassCount];
+            bassSpellings = new int[bassCount];
+            for(int i = 0; i < bassCount; i++){
+                bassChords[i] = in.readInt();
+                bassSpellings[i] = in.readInt();
+                if(bassChords[i] < 0 || bassChords[i] >= chordCount || (i > 0 && bassChords[i] <= bassChords[i - 1])){
+                    throw new MusicTheoryException("Wrong progression store: added bass of chord " + bassChords[i]);
+                }
+            }
+        }
+
+        private static ByteBuffer region(ByteBuffer buffer, int offset, int length){
+            ByteBuffer region = buffer.duplicate();
+            region.position(offset);
+            region.limit(offset + length);
+            return region.slice();
+        }
+
+        private static String[] readNames(DataInputStream in) throws IOException {
+            String[] names = new String[in.readInt()];
+            for(int i = 0; i < names.length; i++){
+                names[i] = in.readUTF().intern();
+            }
+            return names;
+        }
+    }
+}
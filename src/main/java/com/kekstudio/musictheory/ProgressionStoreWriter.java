@@ -0,0 +1,234 @@
+package com.kekstudio.musictheory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writer of chord progressions in the format read by ProgressionStore.
+ * The chords are written as they come, 4 bytes per chord. The progression table and the names of the
+ * chord types, Roman numerals and scale types are written by close, with the added basses of slash chords
+ * (8 bytes each, see Chord.getAddedBass). A store holds up to 512 chord types and 1024 Roman numerals,
+ * roots and basses from octave -1 to 14 with up to 3 flats or sharps, and inversions up to 7.
+ * Not thread-safe.
+ * @author Andy671
+ */
+public class ProgressionStoreWriter implements Closeable {
+
+    private final DataOutputStream out;
+
+    private final Map<String, Integer> typeIndexes = new HashMap<>();
+    private final List<String> types = new ArrayList<>();
+    private final List<String[]> typeIntervals = new ArrayList<>();
+    private final Map<String, Integer> romanNumeralIndexes = new HashMap<>();
+    private final List<String> romanNumerals = new ArrayList<>();
+    private final Map<String, Integer> scaleTypeIndexes = new HashMap<>();
+    private final List<String> scaleTypes = new ArrayList<>();
+
+    // Pairs of (first chord, key) of the progressions.
+    private int[] progressions = new int[64];
+    private int progressionCount;
+    // Pairs of (chord index, spelling) of the added basses.
+    private int[] basses = new int[16];
+    private int bassCount;
+    private int chordCount;
+    private boolean closed;
+
+    /**
+     * Creates a store file.
+     * @param file the store file, replaced if it exists.
+     * @throws IOException if the file can not be written.
+     */
+    public ProgressionStoreWriter(File file) throws IOException {
+        this(new FileOutputStream(file));
+    }
+
+    /**
+     * Writes a store to a stream. The stream is closed by close.
+     * @param out the output stream.
+     * @throws IOException if the stream can not be written.
+     */
+    public ProgressionStoreWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.out.writeInt(ProgressionStore.MAGIC);
+        this.out.writeInt(ProgressionStore.VERSION);
+        index(romanNumeralIndexes, romanNumerals, "", ProgressionStore.NUMERAL_MASK);
+    }
+
+    /**
+     * Writes the chords of a progression with its key.
+     * @param progression the progression.
+     * @return the index of the progression in the store.
+     * @throws IOException if the stream can not be written.
+     */
+    public int write(Progression progression) throws IOException {
+        return write(progression.getKey(), progression.chords());
+    }
+
+    /**
+     * Writes a progression.
+     * @param key the key of the progression, or null.
+     * @param chords the chords of the progression.
+     * @return the index of the progression in the store.
+     * @throws IOException if the stream can not be written.
+     */
+    public int write(Key key, Chord... chords) throws IOException {
+        if(closed){
+            throw new MusicTheoryException("Progression store writer is closed");
+        }
+        if((long) chordCount + chords.length > (Integer.MAX_VALUE - ProgressionStore.HEADER_LENGTH) / 4){
+            throw new MusicTheoryException("Too many chords for a progression store");
+        }
+        int keyRecord = ProgressionStore.NO_KEY;
+        if(key != null){
+            Note tonic = key.getScale().notes[0];
+            int scaleType = index(scaleTypeIndexes, scaleTypes, key.getType(), Integer.MAX_VALUE >>> ProgressionStore.ROOT_BITS);
+            keyRecord = spelling(tonic.getLetterIndex(), tonic.getAccidentals(), 0, key.getName())
+                        | (scaleType << ProgressionStore.ROOT_BITS);
+        }
+        // Records are built first, so that a chord which can not be stored leaves the file unchanged.
+        int[] records = new int[chords.length];
+        int[] bassSpellings = new int[chords.length];
+        for(int i = 0; i < chords.length; i++){
+            records[i] = record(chords[i]);
+            Note bass = chords[i].getAddedBass();
+            bassSpellings[i] = bass != null
+                               ? spelling(bass.getLetterIndex(), bass.getAccidentals(), bass.getOctave(), bass.getName())
+                               : ProgressionStore.NO_BASS;
+        }
+        for(int i = 0; i < chords.length; i++){
+            out.writeInt(records[i]);
+            if(bassSpellings[i] != ProgressionStore.NO_BASS){
+                if(2 * bassCount + 2 > basses.length){
+                    basses = Arrays.copyOf(basses, 2 * basses.length);
+                }
+                basses[2 * bassCount] = chordCount + i;
+                basses[2 * bassCount + 1] = bassSpellings[i];
+                bassCount++;
+            }
+        }
+
+        if(2 * progressionCount + 2 > progressions.length){
+            progressions = Arrays.copyOf(progressions, 2 * progressions.length);
+        }
+        progressions[2 * progressionCount] = chordCount;
+        progressions[2 * progressionCount + 1] = keyRecord;
+        chordCount += chords.length;
+        return progressionCount++;
+    }
+
+    /**
+     * @return the number of progressions written.
+     */
+    public int getProgressionCount(){
+        return progressionCount;
+    }
+
+    /**
+     * @return the number of chords written.
+     */
+    public int getChordCount(){
+        return chordCount;
+    }
+
+    /**
+     * Writes the progression table and the names, and closes the stream.
+     * @throws IOException if the stream can not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if(closed){
+            return;
+        }
+        closed = true;
+        try{
+            long tableOffset = ProgressionStore.HEADER_LENGTH + 4L * chordCount;
+            out.writeInt(progressionCount);
+            out.writeInt(chordCount);
+            for(int i = 0; i < 2 * progressionCount; i++){
+                out.writeInt(progressions[i]);
+            }
+            out.writeInt(types.size());
+            for(int type = 0; type < types.size(); type++){
+                out.writeUTF(types.get(type));
+                String[] intervals = typeIntervals.get(type);
+                out.writeByte(intervals.length);
+                for(String interval : intervals){
+                    out.writeUTF(interval);
+                }
+            }
+            writeNames(romanNumerals);
+            writeNames(scaleTypes);
+            out.writeInt(bassCount);
+            for(int i = 0; i < 2 * bassCount; i++){
+                out.writeInt(basses[i]);
+            }
+            out.writeLong(tableOffset);
+            out.writeInt(ProgressionStore.MAGIC);
+        }finally{
+            out.close();
+        }
+    }
+
+    private int record(Chord chord){
+        Note root = chord.rootNote();
+        String[] intervals = chord.getIntervals();
+        Integer type = typeIndexes.get(chord.getType());
+        if(type == null){
+            if(intervals.length > 0xFF){
+                throw new MusicTheoryException("Too many intervals to store in chord type '" + chord.getType() + "'");
+            }
+            type = index(typeIndexes, types, chord.getType(), ProgressionStore.TYPE_MASK);
+            typeIntervals.add(intervals.clone());
+        }
+        int romanNumeral = index(romanNumeralIndexes, romanNumerals, chord.getTheoryDegree(), ProgressionStore.NUMERAL_MASK);
+        int position = chord.getPosition();
+        if(position < 0 || position > ProgressionStore.INVERSION_MASK){
+            throw new MusicTheoryException("Can not store the inversion of chord " + chord.getName() + ": " + position);
+        }
+        return spelling(root.getLetterIndex(), root.getAccidentals(), root.getOctave(), chord.getName())
+               | (position << ProgressionStore.INVERSION_SHIFT)
+               | (type << ProgressionStore.TYPE_SHIFT)
+               | (romanNumeral << ProgressionStore.NUMERAL_SHIFT);
+    }
+
+    private static int spelling(int letterIndex, int accidentals, int octave, String name){
+        int storedAccidentals = accidentals + ProgressionStore.ACCIDENTALS_OFFSET;
+        int storedOctave = octave + ProgressionStore.OCTAVE_OFFSET;
+        if(storedAccidentals < 1 || storedAccidentals > 7 || storedOctave < 0 || storedOctave > 0xF){
+            throw new MusicTheoryException("Can not store " + name + " in octave " + octave);
+        }
+        return letterIndex
+               | (storedAccidentals << ProgressionStore.ACCIDENTALS_SHIFT)
+               | (storedOctave << ProgressionStore.OCTAVE_SHIFT);
+    }
+
+    private static int index(Map<String, Integer> indexes, List<String> names, String name, int maxIndex){
+        Integer index = indexes.get(name);
+        if(index == null){
+            if(names.size() > maxIndex){
+                throw new MusicTheoryException("Too many distinct names to store: '" + name + "'");
+            }
+            index = names.size();
+            indexes.put(name, index);
+            names.add(name);
+        }
+        return index;
+    }
+
+    private void writeNames(List<String> names) throws IOException {
+        out.writeInt(names.size());
+        for(String name : names){
+            out.writeUTF(name);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.kekstudio.musictheory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsed Roman numeral degree (e.g. bVII7, ii°, #ivø7).
+ * Consists of an optional accidental, the numeral of the degree, whose case tells major from minor,
+ * and the chord suffix. Parsing is a single pass over the characters: the base numerals and suffixes
+ * are resolved to shared strings, so no intermediate strings are allocated.
+ * @author Andy671
+ */
+public final class RomanNumeral {
+
+    private static final String[] NUMERALS = {"I", "II", "III", "IV", "V", "VI", "VII"};
+    // BASES[accidental + 1][degree][0 for minor, 1 for major]
+    private static final String[][][] BASES = new String[3][NUMERALS.length][2];
+
+    static{
+        String[] accidentals = {String.valueOf(Music.FLAT), "", String.valueOf(Music.SHARP)};
+        for(int accidental = 0; accidental < accidentals.length; accidental++){
+            for(int degree = 0; degree < NUMERALS.length; degree++){
+                BASES[accidental][degree][0] = accidentals[accidental] + NUMERALS[degree].toLowerCase();
+                BASES[accidental][degree][1] = accidentals[accidental] + NUMERALS[degree];
+            }
+        }
+    }
+
+    private final int accidental;
+    private final int degree;
+    private final boolean major;
+    private final String suffix;
+    private final String chordType;
+
+    private RomanNumeral(int accidental, int degree, boolean major, String suffix, String chordType){
+        this.accidental = accidental;
+        this.degree = degree;
+        this.major = major;
+        this.suffix = suffix;
+        this.chordType = chordType;
+    }
+
+    /**
+     * Parses a Roman numeral degree.
+     * @param romanNumeral the Roman numeral (e.g. bVII7, ii°).
+     * @return the parsed degree.
+     */
+    public static RomanNumeral parse(String romanNumeral){
+        return parse(romanNumeral, 0, romanNumeral.length());
+    }
+
+    /**
+     * Parses a Roman numeral degree from a region of a string.
+     * @param text the text containing the Roman numeral.
+     * @param start the index of the first character.
+     * @param end the index after the last character.
+     * @return the parsed degree.
+     */
+    public static RomanNumeral parse(String text, int start, int end){
+        RomanNumeral romanNumeral = tryParse(text, start, end);
+        if(romanNumeral == null){
+            throw wrongNumeral(text, start, end);
+        }
+        return romanNumeral;
+    }
+
+    /**
+     * Parses a Roman numeral degree without throwing, for untrusted input.
+     * @param romanNumeral the Roman numeral (e.g. bVII7, ii°).
+     * @return the parsed degree, or the error code.
+     */
+    public static ParseResult<RomanNumeral> tryParse(String romanNumeral){
+        if(romanNumeral == null || romanNumeral.isEmpty()){
+            return ParseResult.failure(ParseResult.EMPTY_INPUT);
+        }
+        RomanNumeral parsed = tryParse(romanNumeral, 0, romanNumeral.length());
+        return parsed == null ? ParseResult.<RomanNumeral>failure(ParseResult.WRONG_DEGREE) : ParseResult.success(parsed);
+    }
+
+    /**
+     * Returns the parsed degree, or null if the region is not a Roman numeral.
+     */
+    static RomanNumeral tryParse(String text, int start, int end){
+        if(!TheoryMetrics.ENABLED){
+            return parseRegion(text, start, end);
+        }
+        long startNanos = System.nanoTime();
+        RomanNumeral romanNumeral = parseRegion(text, start, end);
+        TheoryMetrics.record(TheoryMetrics.DEGREE_PARSE, startNanos);
+        return romanNumeral;
+    }
+
+    private static RomanNumeral parseRegion(String text, int start, int end){
+        int index = start;
+        int accidental = 0;
+        if(index < end){
+            char first = text.charAt(index);
+            if(first == Music.FLAT){
+                accidental = -1;
+                index++;
+            }else if(first == Music.SHARP){
+                accidental = 1;
+                index++;
+            }
+        }
+
+        int numeralStart = index;
+        int upperCase = 0;
+        int vPosition = -1;
+        while(index < end){
+            char c = text.charAt(index);
+            if(c == 'I' || c == 'V'){
+                upperCase++;
+            }else if(c != 'i' && c != 'v'){
+                break;
+            }
+            if(c == 'V' || c == 'v'){
+                if(vPosition != -1){
+                    return null;
+                }
+                vPosition = index - numeralStart;
+            }
+            index++;
+        }
+
+        int length = index - numeralStart;
+        int degree;
+        if(vPosition == -1 && length >= 1 && length <= 3){
+            degree = length - 1;                // I, II, III
+        }else if(vPosition == 0 && length <= 3){
+            degree = 4 + length - 1;            // V, VI, VII
+        }else if(vPosition == 1 && length == 2){
+            degree = 3;                         // IV
+        }else{
+            return null;
+        }
+        if(upperCase != 0 && upperCase != length){
+            return null;
+        }
+        boolean major = upperCase != 0;
+
+        MusicRegistry.Snapshot registry = MusicRegistry.snapshot();
+        String[] suffixes = major ? registry.majorSuffixes : registry.minorSuffixes;
+        String[] types = major ? registry.majorSuffixTypes : registry.minorSuffixTypes;
+        int suffixLength = end - index;
+        for(int i = 0; i < suffixes.length; i++){
+            if(suffixes[i].length() == suffixLength && text.regionMatches(index, suffixes[i], 0, suffixLength)){
+                return new RomanNumeral(accidental, degree, major, suffixes[i], types[i]);
+            }
+        }
+        return new RomanNumeral(accidental, degree, major, text.substring(index, end), null);
+    }
+
+    /**
+     * Parses a progression of Roman numerals separated by spaces, commas, bars or dashes (e.g. "ii7 V7 Imaj7").
+     * @param progression the progression.
+     * @return the parsed degrees.
+     */
+    public static RomanNumeral[] parseAll(String progression){
+        List<RomanNumeral> romanNumerals = new ArrayList<>();
+        int length = progression.length();
+        int index = 0;
+        while(index < length){
+            while(index < length && isSeparator(progression.charAt(index))){
+                index++;
+            }
+            int start = index;
+            while(index < length && !isSeparator(progression.charAt(index))){
+                index++;
+            }
+            if(index > start){
+                romanNumerals.add(parse(progression, start, index));
+            }
+        }
+        return romanNumerals.toArray(new RomanNumeral[romanNumerals.size()]);
+    }
+
+    private static boolean isSeparator(char c){
+        return Character.isWhitespace(c) || c == ',' || c == '|' || c == '-' || c == '–' || c == '—';
+    }
+
+    /**
+     * @return -1 for a flat degree, 1 for a sharp degree, 0 otherwise.
+     */
+    public int getAccidental(){
+        return accidental;
+    }
+
+    /**
+     * @return the index of the degree in Music.Degrees.
+     */
+    public int getDegree(){
+        return degree;
+    }
+
+    /**
+     * @return true if the numeral is upper case.
+     */
+    public boolean isMajor(){
+        return major;
+    }
+
+    /**
+     * @return the chord suffix (e.g. 7, °, maj7).
+     */
+    public String getSuffix(){
+        return suffix;
+    }
+
+    /**
+     * @return the chord type (see MusicRegistry), or null if the suffix is unknown.
+     */
+    public String getChordType(){
+        return chordType;
+    }
+
+    /**
+     * @return the accidental and numeral in original case (e.g. bVII, ii).
+     */
+    public String getBaseRoman(){
+        return BASES[accidental + 1][degree][major ? 1 : 0];
+    }
+
+    /**
+     * @return the accidental and numeral in upper case (e.g. bVII, II).
+     */
+    public String getBaseRomanCaps(){
+        return BASES[accidental + 1][degree][1];
+    }
+
+    /**
+     * @return the numeral with the diminished, half-diminished or augmented symbol only (e.g. ii°, V).
+     */
+    public String getInKeyRoman(){
+        int last = -1;
+        for(int i = 0; i < suffix.length(); i++){
+            char c = suffix.charAt(i);
+            if(c == 'ø' || c == '°' || c == '+'){
+                last = i;
+            }
+        }
+        if(last == -1){
+            return getBaseRoman();
+        }
+        return getBaseRoman() + suffix.substring(0, last + 1);
+    }
+
+    private static MusicTheoryException wrongNumeral(String text, int start, int end){
+        return new MusicTheoryException("Wrong Roman numeral '" + text.substring(start, end) + "'");
+    }
+
+    @Override
+    public String toString() {
+        return getBaseRoman() + suffix;
+    }
+}
@@ -24,10 +24,27 @@ public class Scale {
         this.intervals = intervals;
         
         notes = new Note[intervals.length + 1];
-        notes[0] = rootNote;
+        notes[0] = rootNote.copy();
         
         for(int i = 1; i < notes.length; i++){
-            notes[i] = rootNote.add(intervals[i-1]);
+            int intervalId = SpellingTable.checkedIntervalId(intervals[i-1]);
+            notes[i] = notes[0].add(intervalId, null);
+        }
+        
+        octave = rootNote.getOctave();
+    }
+    
+    /**
+     * Initializes the scale with a root note and resolved interval ids (see SpellingTable).
+     */
+    Scale(Note rootNote, String[] intervals, int[] intervalIds){
+        this.intervals = intervals;
+        
+        notes = new Note[intervalIds.length + 1];
+        notes[0] = rootNote.copy();
+        
+        for(int i = 1; i < notes.length; i++){
+            notes[i] = notes[0].add(intervalIds[i-1], null);
         }
         
         octave = rootNote.getOctave();
@@ -38,7 +55,28 @@ public class Scale {
      * @param notes
      */
     public Scale(Note[] notes){
+        this(notes, null);
+    }
+    
+    /**
+     * Initializes the scale with packed notes (see PackedNote).
+     * @param packedNotes
+     */
+    public Scale(int[] packedNotes){
+        this(PackedNote.toNotes(packedNotes), null);
+    }
+    
+    Scale(Note[] notes, String[] intervals){
+        // Shared notes (see Note.of) are replaced by copies, the notes of a scale can be modified.
+        // The array of the caller is left as it is.
+        notes = notes.clone();
+        for(int i = 0; i < notes.length; i++){
+            if(notes[i].isShared()){
+                notes[i] = notes[i].copy();
+            }
+        }
         this.notes = notes;
+        this.intervals = intervals;
         
         octave = notes[0].getOctave();
     }
@@ -50,26 +88,41 @@ public class Scale {
     public void setOctave(int octave){
         this.octave = octave;
         
-        int octaveDifference = getRoot().getOctave() - octave;
+        int octaveDifference = octave - notes[0].getOctave();
         
         for(Note note : notes){
-            note.setOctave(note.getOctave() + octaveDifference);
+            note.moveToOctave(note.getOctave() + octaveDifference);
         }
     }
     
     /**
-     * Returns the root note.
-     * @return the root note.
+     * Returns copies of the notes, which can be modified without changing the scale.
+     * @return the new notes.
      */
     public Note[] getNotes(){
-        return notes;
+        return copyNotes();
     }
     
     /**
-     * @return the root note.
+     * @param index the index of the note.
+     * @return a copy of the note at the given index.
+     */
+    public Note getNote(int index){
+        return notes[index].copy();
+    }
+    
+    /**
+     * @return the number of notes.
+     */
+    public int size(){
+        return notes.length;
+    }
+    
+    /**
+     * @return a copy of the root note.
      */
     public Note getRoot(){
-        return notes[0];
+        return notes[0].copy();
     }
     
     /**
@@ -84,12 +137,70 @@ public class Scale {
      * @return the copy.
      */
     public Scale copy(){
+        return new Scale(copyNotes(), intervals);
+    }  
+    
+    /**
+     * Returns a copy of the scale/chord in another octave. Does not modify this scale.
+     * @param octave
+     * @return the new scale.
+     */
+    public Scale withOctave(int octave){
+        Scale scale = copy();
+        scale.setOctave(octave);
+        return scale;
+    }
+    
+    /**
+     * Returns a copy of the scale/chord with sorted notes. Does not modify this scale.
+     * @return the new scale.
+     */
+    public Scale sorted(){
+        Scale scale = copy();
+        scale.sort();
+        return scale;
+    }
+    
+    /**
+     * Returns the scale/chord transposed by an interval. Does not modify this scale.
+     * @param intervalSymbol the symbol of the interval to add to every note (e.g. m2).
+     * @return the new scale.
+     */
+    public Scale transpose(String intervalSymbol){
+        return transpose(SpellingTable.checkedIntervalId(intervalSymbol));
+    }
+    
+    Scale transpose(int intervalId){
+        return new Scale(transposeNotes(intervalId), intervals);
+    }
+    
+    Note[] copyNotes(){
         Note[] newNotes = new Note[notes.length];
         for(int i = 0; i < notes.length; i++){
             newNotes[i] = notes[i].copy();
         }
-        return new Scale(newNotes);
-    }  
+        return newNotes;
+    }
+    
+    Note[] transposeNotes(int intervalId){
+        Note[] newNotes = new Note[notes.length];
+        for(int i = 0; i < notes.length; i++){
+            newNotes[i] = notes[i].add(intervalId, null);
+        }
+        return newNotes;
+    }
+    
+    String[] getIntervals(){
+        return intervals;
+    }
+    
+    /**
+     * Packs the notes of the scale/chord (see PackedNote).
+     * @return the packed notes.
+     */
+    public int[] toPackedArray(){
+        return PackedNote.pack(notes);
+    }
     
     /**
      * Sorts notes in scale
@@ -98,19 +209,62 @@ public class Scale {
         Arrays.sort(notes);
     }
     
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(notes);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final Scale other = (Scale) obj;
+        return Arrays.equals(this.notes, other.notes);
+    }
+    
     @Override
     public String toString() {
-        String returnString  = getRoot().getName() + " ";
-        if(Music.ScalesInverse.containsKey(intervals)){
-            returnString += Music.ScalesInverse.get(intervals) + " ";
+        return appendTo(new StringBuilder(16 * notes.length)).toString();
+    }
+    
+    /**
+     * Appends the scale in the format of toString (e.g. C major scale {C4[60], D4[62], ...}).
+     * @param builder the builder to append to.
+     * @return the builder.
+     */
+    public StringBuilder appendTo(StringBuilder builder){
+        builder.append(notes[0].getName()).append(' ');
+        String scaleType = getScaleType();
+        if(scaleType != null){
+            builder.append(scaleType).append(' ');
         }
-        returnString += "scale {";
-        for(Note note : notes){
-            returnString += note.toString() + ", ";
+        builder.append("scale ");
+        return appendNotesTo(builder);
+    }
+    
+    /**
+     * @return the type of the scale (see MusicRegistry), or null if the intervals are not a known scale.
+     */
+    String getScaleType(){
+        return intervals == null ? null : IntervalIndex.scaleType(intervals);
+    }
+    
+    StringBuilder appendNotesTo(StringBuilder builder){
+        builder.append('{');
+        for(int i = 0; i < notes.length; i++){
+            if(i > 0){
+                builder.append(", ");
+            }
+            notes[i].appendTo(builder);
         }
-        returnString = returnString.substring(0, returnString.length()-2);
-        returnString += "}";
-        return returnString;
+        return builder.append('}');
     }    
  
 }
\ No newline at end of file
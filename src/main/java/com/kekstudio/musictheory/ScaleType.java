@@ -0,0 +1,29 @@
+package com.kekstudio.musictheory;
+
+/**
+ * Ids of the built-in scale types (see MusicRegistry).
+ * Generating scales and keys from an id (e.g. Note.scale(ScaleType.DORIAN)) skips the lookup by name,
+ * custom scale types get their ids from MusicRegistry.scaleId.
+ * @author Andy671
+ */
+public final class ScaleType {
+
+    public static final int MAJOR = 0;
+    public static final int MINOR = 1;
+    public static final int DORIAN = 2;
+    public static final int PHRYGIAN = 3;
+    public static final int LYDIAN = 4;
+    public static final int MIXOLYDIAN = 5;
+    public static final int LOCRIAN = 6;
+
+    private ScaleType(){
+    }
+
+    /**
+     * @param scaleType the id of the scale type.
+     * @return the name of the scale type (e.g. dorian).
+     */
+    public static String name(int scaleType){
+        return MusicRegistry.scaleType(scaleType);
+    }
+}
@@ -0,0 +1,199 @@
+package com.kekstudio.musictheory;
+
+/**
+ * Enharmonic spelling of midi values.
+ * Spells every pitch class from a 12-entry table of the current key: the notes of the key scale
+ * are spelled as in the scale (e.g. E# in C# major), the other pitch classes with the fewest
+ * accidentals, preferring a letter outside the scale and then the direction of the key signature.
+ * The notes of the current chord, if any, override the key (e.g. F# in D7 in C major).
+ * Tables of all keys of Music.Scales with a natural, sharp or flat tonic are precomputed,
+ * so spelling is a table lookup. Not thread-safe, use one speller per thread.
+ * @author Andy671
+ */
+public class Speller {
+
+    private static final int PITCH_CLASSES = 12;
+    private static final int LETTERS = 7;
+    private static final int MAX_TONIC_ACCIDENTALS = 1;
+    private static final int TONIC_ACCIDENTALS = 2 * MAX_TONIC_ACCIDENTALS + 1;
+    private static final int MAX_ACCIDENTALS = 2;
+    private static final int ACCIDENTALS_SHIFT = 3;
+    private static final int LETTER_MASK = 0x7;
+
+    private static final String[] MODES = Music.Scales.keySet().toArray(new String[Music.Scales.size()]);
+    // Spellings packed as letterIndex | accidentals << 3, see spelling().
+    private static final int[] DEFAULT_TABLE;
+    // TABLES[mode][letterIndex * 3 + accidentals + 1][pitchClass]
+    private static final int[][][] TABLES = new int[MODES.length][LETTERS * TONIC_ACCIDENTALS][];
+
+    static{
+        String[] defaultSpellings = Music.ScaleAlterations.get("major");
+        DEFAULT_TABLE = new int[PITCH_CLASSES];
+        for(int pitchClass = 0; pitchClass < PITCH_CLASSES; pitchClass++){
+            Note note = Note.of(defaultSpellings[pitchClass]);
+            DEFAULT_TABLE[pitchClass] = spelling(note.getLetterIndex(), note.getAccidentals());
+        }
+
+        for(int mode = 0; mode < MODES.length; mode++){
+            String[] intervals = Music.Scales.get(MODES[mode]);
+            for(int letterIndex = 0; letterIndex < LETTERS; letterIndex++){
+                for(int accidentals = -MAX_TONIC_ACCIDENTALS; accidentals <= MAX_TONIC_ACCIDENTALS; accidentals++){
+                    Note[] notes = new Note[intervals.length + 1];
+                    notes[0] = Note.of(letterIndex, accidentals, 4);
+                    for(int i = 0; i < intervals.length; i++){
+                        notes[i + 1] = notes[0].transpose(SpellingTable.intervalId(intervals[i]));
+                    }
+                    TABLES[mode][letterIndex * TONIC_ACCIDENTALS + accidentals + MAX_TONIC_ACCIDENTALS] = table(notes);
+                }
+            }
+        }
+    }
+
+    private Key key;
+    private int[] keyTable = DEFAULT_TABLE;
+    private final int[] chordTable = new int[PITCH_CLASSES];
+    private int chordMask;
+
+    /**
+     * Initializes the speller without key, spelling as in Music.ScaleAlterations for major keys.
+     */
+    public Speller(){
+    }
+
+    /**
+     * Initializes the speller with a key.
+     * @param key the key.
+     */
+    public Speller(Key key){
+        setKey(key);
+    }
+
+    /**
+     * Sets the current key.
+     * @param key the key, or null to spell as in Music.ScaleAlterations for major keys.
+     */
+    public void setKey(Key key){
+        this.key = key;
+        keyTable = key == null ? DEFAULT_TABLE : table(key);
+    }
+
+    /**
+     * @return the current key, or null.
+     */
+    public Key getKey(){
+        return key;
+    }
+
+    /**
+     * Sets the current chord, whose notes are spelled as in the chord.
+     * @param chord the chord, or null to spell from the key only.
+     */
+    public void setChord(Chord chord){
+        chordMask = 0;
+        if(chord == null){
+            return;
+        }
+        for(Note note : chord.notes){
+            int pitchClass = pitchClass(note.getMidiValue());
+            chordTable[pitchClass] = spelling(note.getLetterIndex(), note.getAccidentals());
+            chordMask |= 1 << pitchClass;
+        }
+    }
+
+    /**
+     * Spells a midi value. Use spellPacked to spell without allocating a note.
+     * @param midiValue the midi value.
+     * @return the note.
+     */
+    public Note spell(int midiValue){
+        int spelling = spellingOf(pitchClass(midiValue));
+        return Note.spell(spelling & LETTER_MASK, spelling >> ACCIDENTALS_SHIFT, midiValue).copy();
+    }
+
+    /**
+     * Spells a pitch class.
+     * @param pitchClass the pitch class (0 for C).
+     * @return the name of the note (e.g. F#).
+     */
+    public String name(int pitchClass){
+        int spelling = spellingOf(pitchClass(pitchClass));
+        return SpellingTable.name(spelling & LETTER_MASK, spelling >> ACCIDENTALS_SHIFT);
+    }
+
+    /**
+     * Spells a midi value as a packed note (see PackedNote).
+     * @param midiValue the midi value.
+     * @return the packed note.
+     */
+    public int spellPacked(int midiValue){
+        return PackedNote.pack(spell(midiValue));
+    }
+
+    private int spellingOf(int pitchClass){
+        return (chordMask & (1 << pitchClass)) != 0 ? chordTable[pitchClass] : keyTable[pitchClass];
+    }
+
+    private static int[] table(Key key){
+        Note tonic = key.getScale().notes[0];
+        for(int mode = 0; mode < MODES.length; mode++){
+            if(MODES[mode].equals(key.getType()) && Math.abs(tonic.getAccidentals()) <= MAX_TONIC_ACCIDENTALS){
+                return TABLES[mode][tonic.getLetterIndex() * TONIC_ACCIDENTALS
+                                    + tonic.getAccidentals() + MAX_TONIC_ACCIDENTALS];
+            }
+        }
+        return table(key.getScale().notes);
+    }
+
+    private static int[] table(Note[] scaleNotes){
+        int[] table = new int[PITCH_CLASSES];
+        boolean[] spelled = new boolean[PITCH_CLASSES];
+        boolean[] usedLetters = new boolean[LETTERS];
+        int signature = 0;
+        for(Note note : scaleNotes){
+            int pitchClass = pitchClass(note.getMidiValue());
+            if(!spelled[pitchClass]){
+                table[pitchClass] = spelling(note.getLetterIndex(), note.getAccidentals());
+                spelled[pitchClass] = true;
+            }
+            usedLetters[note.getLetterIndex()] = true;
+            signature += note.getAccidentals();
+        }
+
+        for(int pitchClass = 0; pitchClass < PITCH_CLASSES; pitchClass++){
+            if(spelled[pitchClass]){
+                continue;
+            }
+            int best = -1, bestScore = Integer.MAX_VALUE;
+            for(int letterIndex = 0; letterIndex < LETTERS; letterIndex++){
+                int accidentals = pitchClass(pitchClass - SpellingTable.letterValue(letterIndex));
+                if(accidentals > PITCH_CLASSES / 2){
+                    accidentals -= PITCH_CLASSES;
+                }
+                if(Math.abs(accidentals) > MAX_ACCIDENTALS){
+                    continue;
+                }
+                int spelling = spelling(letterIndex, accidentals);
+                int score = 4 * Math.abs(accidentals) + (usedLetters[letterIndex] ? 2 : 0);
+                // Ties follow the key signature, or Music.ScaleAlterations without signature.
+                if(signature == 0 ? spelling != DEFAULT_TABLE[pitchClass] : signature * accidentals < 0){
+                    score++;
+                }
+                if(score < bestScore){
+                    bestScore = score;
+                    best = spelling;
+                }
+            }
+            table[pitchClass] = best;
+        }
+        return table;
+    }
+
+    private static int spelling(int letterIndex, int accidentals){
+        return letterIndex | (accidentals << ACCIDENTALS_SHIFT);
+    }
+
+    private static int pitchClass(int midiValue){
+        int pitchClass = midiValue % PITCH_CLASSES;
+        return pitchClass < 0 ? pitchClass + PITCH_CLASSES : pitchClass;
+    }
+}
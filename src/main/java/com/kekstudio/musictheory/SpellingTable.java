@@ -0,0 +1,234 @@
+package com.kekstudio.musictheory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Precomputed note spelling tables.
+ * Maps (letter index, accidental count, interval id) to the spelling of the transposed note,
+ * so that adding an interval to a note is a plain array lookup.
+ * @author Andy671
+ */
+final class SpellingTable {
+
+    /**
+     * The largest number of accidentals covered by the precomputed tables.
+     */
+    static final int MAX_ACCIDENTALS = 3;
+
+    private static final int ACCIDENTAL_SPAN = 2 * MAX_ACCIDENTALS + 1;
+    private static final int LETTER_COUNT = Music.Alphabet.length;
+
+    private static final int[] LETTER_VALUES;
+    private static final int[] LETTER_INDEXES;
+    private static final String[] NAMES;
+
+    private static final int MAX_INTERVAL_STEPS = 32;
+
+    private static final Map<String, Integer> INTERVAL_IDS;
+    private static final Interval[] INTERVALS;
+    private static final int[] INTERVAL_IDS_BY_VALUE;
+    private static final int[] TRANSPOSITIONS;
+
+    static{
+        LETTER_VALUES = new int[LETTER_COUNT];
+        LETTER_INDEXES = new int[128];
+        for(int i = 0; i < LETTER_INDEXES.length; i++){
+            LETTER_INDEXES[i] = -1;
+        }
+        for(int i = 0; i < LETTER_COUNT; i++){
+            LETTER_VALUES[i] = Music.Notes.get(Music.Alphabet[i]);
+            LETTER_INDEXES[Music.Alphabet[i].charAt(0)] = i;
+        }
+
+        NAMES = new String[LETTER_COUNT * ACCIDENTAL_SPAN];
+        for(int letter = 0; letter < LETTER_COUNT; letter++){
+            for(int accidentals = -MAX_ACCIDENTALS; accidentals <= MAX_ACCIDENTALS; accidentals++){
+                NAMES[spellingIndex(letter, accidentals)] = buildName(letter, accidentals).intern();
+            }
+        }
+
+        INTERVAL_IDS = new HashMap<>();
+        INTERVALS = new Interval[Music.Intervals.size()];
+        int id = 0;
+        for(Map.Entry<String, Interval> entry : Music.Intervals.entrySet()){
+            INTERVAL_IDS.put(entry.getKey(), id);
+            INTERVALS[id] = entry.getValue();
+            id++;
+        }
+
+        int maxDegree = 0;
+        for(Interval interval : INTERVALS){
+            maxDegree = Math.max(maxDegree, interval.degree);
+        }
+        INTERVAL_IDS_BY_VALUE = new int[(maxDegree + 1) * MAX_INTERVAL_STEPS];
+        for(int i = 0; i < INTERVAL_IDS_BY_VALUE.length; i++){
+            INTERVAL_IDS_BY_VALUE[i] = -1;
+        }
+        for(int i = 0; i < INTERVALS.length; i++){
+            INTERVAL_IDS_BY_VALUE[INTERVALS[i].degree * MAX_INTERVAL_STEPS + INTERVALS[i].steps] = i;
+        }
+
+        TRANSPOSITIONS = new int[NAMES.length * INTERVALS.length];
+        for(int letter = 0; letter < LETTER_COUNT; letter++){
+            for(int accidentals = -MAX_ACCIDENTALS; accidentals <= MAX_ACCIDENTALS; accidentals++){
+                for(int intervalId = 0; intervalId < INTERVALS.length; intervalId++){
+                    TRANSPOSITIONS[spellingIndex(letter, accidentals) * INTERVALS.length + intervalId] =
+                            compute(letter, accidentals, INTERVALS[intervalId]);
+                }
+            }
+        }
+    }
+
+    private SpellingTable(){
+    }
+
+    /**
+     * Returns the id of an interval symbol, or -1 if the symbol is unknown.
+     * @param intervalSymbol the symbol of the interval (e.g. m2).
+     * @return the interval id.
+     */
+    static int intervalId(String intervalSymbol){
+        Integer id = INTERVAL_IDS.get(intervalSymbol);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the id of an interval symbol.
+     * @param intervalSymbol the symbol of the interval (e.g. m2).
+     * @return the interval id.
+     * @throws MusicTheoryException if the symbol is unknown.
+     */
+    static int checkedIntervalId(String intervalSymbol){
+        int intervalId = intervalId(intervalSymbol);
+        if(intervalId == -1){
+            throw new MusicTheoryException("Unknown interval symbol name '" + intervalSymbol + "'");
+        }
+        return intervalId;
+    }
+
+    /**
+     * Returns the id of an interval, or -1 if the interval is unknown.
+     * @param degree the degree of the interval.
+     * @param steps the number of steps of the interval.
+     * @return the interval id.
+     */
+    static int intervalId(int degree, int steps){
+        int index = degree * MAX_INTERVAL_STEPS + steps;
+        if(steps < 0 || steps >= MAX_INTERVAL_STEPS || index < 0 || index >= INTERVAL_IDS_BY_VALUE.length){
+            return -1;
+        }
+        return INTERVAL_IDS_BY_VALUE[index];
+    }
+
+    /**
+     * @return the number of known intervals.
+     */
+    static int intervalCount(){
+        return INTERVALS.length;
+    }
+
+    /**
+     * @param intervalId the interval id.
+     * @return the interval with the given id.
+     */
+    static Interval interval(int intervalId){
+        return INTERVALS[intervalId];
+    }
+
+    /**
+     * Returns the index of a note letter in Music.Alphabet, or -1 if it is not a note letter.
+     * @param letter the letter of the note.
+     * @return the letter index.
+     */
+    static int letterIndex(char letter){
+        return letter < LETTER_INDEXES.length ? LETTER_INDEXES[letter] : -1;
+    }
+
+    /**
+     * @param letterIndex the index of the letter in Music.Alphabet.
+     * @return the semitone value of the natural letter.
+     */
+    static int letterValue(int letterIndex){
+        return LETTER_VALUES[letterIndex];
+    }
+
+    /**
+     * Returns the note name for a letter and an accidental count.
+     * Names within the table range are shared instances.
+     * @param letterIndex the index of the letter in Music.Alphabet.
+     * @param accidentals signed accidental count (positive for sharps).
+     * @return the note name.
+     */
+    static String name(int letterIndex, int accidentals){
+        if(accidentals <= MAX_ACCIDENTALS && accidentals >= -MAX_ACCIDENTALS){
+            return NAMES[spellingIndex(letterIndex, accidentals)];
+        }
+        return buildName(letterIndex, accidentals);
+    }
+
+    /**
+     * Transposes a spelled note by an interval.
+     * @param letterIndex the index of the letter in Music.Alphabet.
+     * @param accidentals signed accidental count of the note.
+     * @param intervalId the id of the interval.
+     * @return the packed spelling (see {@link #letterOf}, {@link #accidentalsOf}, {@link #carryOf}).
+     */
+    static int transpose(int letterIndex, int accidentals, int intervalId){
+        if(accidentals <= MAX_ACCIDENTALS && accidentals >= -MAX_ACCIDENTALS){
+            return TRANSPOSITIONS[spellingIndex(letterIndex, accidentals) * INTERVALS.length + intervalId];
+        }
+        return compute(letterIndex, accidentals, INTERVALS[intervalId]);
+    }
+
+    /**
+     * @param spelling the packed spelling returned by {@link #transpose}.
+     * @return the letter index of the spelling.
+     */
+    static int letterOf(int spelling){
+        return spelling & 0xF;
+    }
+
+    /**
+     * @param spelling the packed spelling returned by {@link #transpose}.
+     * @return the number of octaves crossed by the transposition.
+     */
+    static int carryOf(int spelling){
+        return (spelling >> 4) & 0xF;
+    }
+
+    /**
+     * @param spelling the packed spelling returned by {@link #transpose}.
+     * @return the signed accidental count of the spelling.
+     */
+    static int accidentalsOf(int spelling){
+        return spelling >> 8;
+    }
+
+    private static int compute(int letterIndex, int accidentals, Interval interval){
+        // Octaves start at C, while Music.Alphabet starts at A.
+        int fromC = (letterIndex + LETTER_COUNT - LETTER_INDEXES['C']) % LETTER_COUNT + interval.degree;
+        int resultLetter = (letterIndex + interval.degree) % LETTER_COUNT;
+        int carry = fromC / LETTER_COUNT;
+        int resultAccidentals = LETTER_VALUES[letterIndex] + accidentals + interval.steps
+                                - LETTER_VALUES[resultLetter] - carry * 12;
+
+        return resultLetter | (carry << 4) | (resultAccidentals << 8);
+    }
+
+    private static int spellingIndex(int letterIndex, int accidentals){
+        return letterIndex * ACCIDENTAL_SPAN + accidentals + MAX_ACCIDENTALS;
+    }
+
+    private static String buildName(int letterIndex, int accidentals){
+        char accidentalSymbol = accidentals > 0 ? Music.SHARP : Music.FLAT;
+        int numberOfAccidentals = Math.abs(accidentals);
+
+        StringBuilder builder = new StringBuilder(numberOfAccidentals + 1);
+        builder.append(Music.Alphabet[letterIndex]);
+        for(int i = 0; i < numberOfAccidentals; i++){
+            builder.append(accidentalSymbol);
+        }
+        return builder.toString();
+    }
+}
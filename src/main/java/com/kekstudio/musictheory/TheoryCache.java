@@ -0,0 +1,267 @@
+package com.kekstudio.musictheory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, thread-safe LRU cache for generated scales, chords and keys.
+ * Entries are keyed on the root spelling, octave, type and inversion (or degree).
+ * The cached instances are never returned, every call returns a copy which the caller may modify.
+ * @author Andy671
+ */
+public class TheoryCache {
+
+    /**
+     * The default maximum number of cached entries.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private static final int SCALE = 0;
+    private static final int CHORD = 1;
+    private static final int KEY = 2;
+    private static final int KEY_CHORD = 3;
+
+    private final int maximumSize;
+    private final Map<CacheKey, Object> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile boolean enabled = true;
+
+    /**
+     * Initializes the cache with the default maximum size.
+     */
+    public TheoryCache(){
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Initializes the cache.
+     * @param maximumSize the maximum number of cached entries.
+     */
+    public TheoryCache(final int maximumSize){
+        if(maximumSize <= 0){
+            throw new MusicTheoryException("Cache size must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<CacheKey, Object>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, Object> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the scale with the given root and type.
+     * @param rootNote the root note of the scale.
+     * @param scaleType the type of the scale.
+     * @return a copy of the cached scale.
+     */
+    public Scale scale(Note rootNote, String scaleType){
+        CacheKey key = new CacheKey(SCALE, rootNote.getName(), rootNote.getOctave(), scaleType, "");
+        Scale scale = (Scale) get(key);
+        if(scale == null){
+            scale = (Scale) put(key, rootNote.scale(scaleType));
+        }
+        return scale.copy();
+    }
+
+    /**
+     * Returns the chord with the given root and type.
+     * @param rootNote the root note of the chord.
+     * @param chordType the type of the chord.
+     * @return a copy of the cached chord.
+     */
+    public Chord chord(Note rootNote, String chordType){
+        return chord(rootNote, chordType, 0);
+    }
+
+    /**
+     * Returns the chord with the given root, type and inversion.
+     * @param rootNote the root note of the chord.
+     * @param chordType the type of the chord.
+     * @param position the inversion of the chord.
+     * @return a copy of the cached chord.
+     */
+    public Chord chord(Note rootNote, String chordType, int position){
+        CacheKey key = new CacheKey(CHORD, rootNote.getName(), rootNote.getOctave(), chordType, String.valueOf(position));
+        Chord chord = (Chord) get(key);
+        if(chord == null){
+            chord = rootNote.chord(chordType);
+            chord.setPosition(position);
+            chord = (Chord) put(key, chord);
+        }
+        return chord.copy();
+    }
+
+    /**
+     * Returns the key with the given name and type. The key uses this cache for its chords.
+     * @param noteName the key note.
+     * @param scaleKeyType the type of the key.
+     * @return a copy of the cached key.
+     */
+    public Key key(String noteName, String scaleKeyType){
+        CacheKey cacheKey = new CacheKey(KEY, noteName, 4, scaleKeyType, "");
+        Key key = (Key) get(cacheKey);
+        if(key == null){
+            key = new Key(noteName, scaleKeyType);
+            key.setCache(this);
+            key = (Key) put(cacheKey, key);
+        }
+        return key.copy();
+    }
+
+    Chord chord(Key key, String degree, String type){
+        CacheKey cacheKey = new CacheKey(KEY_CHORD, key.getName(), key.getOctave(), key.getType() + " " + type, degree);
+        Chord chord = (Chord) get(cacheKey);
+        if(chord == null){
+            chord = (Chord) put(cacheKey, key.createChord(degree, type));
+        }
+        return chord.copy();
+    }
+
+    /**
+     * Enables or disables the cache. A disabled cache generates new instances on every call.
+     * @param enabled
+     */
+    public void setEnabled(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return true if the cache is enabled.
+     */
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    /**
+     * @return the maximum number of cached entries.
+     */
+    public int getMaximumSize(){
+        return maximumSize;
+    }
+
+    /**
+     * @return the number of cached entries.
+     */
+    public int size(){
+        synchronized(entries){
+            return entries.size();
+        }
+    }
+
+    /**
+     * Removes all entries. The counters are kept.
+     */
+    public void clear(){
+        synchronized(entries){
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return the number of lookups that found a cached entry.
+     */
+    public long getHitCount(){
+        return hits.get();
+    }
+
+    /**
+     * @return the number of lookups that had to generate a new entry.
+     */
+    public long getMissCount(){
+        return misses.get();
+    }
+
+    /**
+     * @return the ratio of hits to lookups, or 0 if there were no lookups.
+     */
+    public double getHitRate(){
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    private Object get(CacheKey key){
+        if(!enabled){
+            return null;
+        }
+        Object value;
+        synchronized(entries){
+            value = entries.get(key);
+        }
+        if(value == null){
+            misses.incrementAndGet();
+        }else{
+            hits.incrementAndGet();
+        }
+        if(TheoryMetrics.ENABLED){
+            TheoryMetrics.recordCacheAccess(value != null);
+        }
+        return value;
+    }
+
+    // Values are generated outside of the lock, so concurrent misses may generate the same entry twice.
+    // The first one stored wins, so that all callers get copies of the same entry.
+    private Object put(CacheKey key, Object value){
+        if(!enabled){
+            return value;
+        }
+        synchronized(entries){
+            Object existing = entries.get(key);
+            if(existing != null){
+                return existing;
+            }
+            entries.put(key, value);
+        }
+        return value;
+    }
+
+    private static final class CacheKey {
+
+        private final int kind;
+        private final String root;
+        private final int octave;
+        private final String type;
+        private final String variant;
+        private final int hash;
+
+        CacheKey(int kind, String root, int octave, String type, String variant){
+            this.kind = kind;
+            this.root = root;
+            this.octave = octave;
+            this.type = type;
+            this.variant = variant;
+
+            int h = kind;
+            h = 31 * h + root.hashCode();
+            h = 31 * h + octave;
+            h = 31 * h + type.hashCode();
+            h = 31 * h + variant.hashCode();
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            final CacheKey other = (CacheKey) obj;
+            return kind == other.kind
+                   && octave == other.octave
+                   && root.equals(other.root)
+                   && type.equals(other.type)
+                   && variant.equals(other.variant);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.kekstudio.musictheory;
+
+import java.io.IOException;
+
+/**
+ * Reusable formatter for notes, scales, chords, keys and progressions.
+ * Appends directly to a StringBuilder or an Appendable, so that many objects can be
+ * rendered into one buffer without intermediate strings. Not thread-safe, the buffer
+ * used for Appendable output is reused between calls.
+ * @author Andy671
+ */
+public class TheoryFormatter {
+
+    /**
+     * Names only (e.g. C#, Cm7, C/F#, C major).
+     */
+    public static final int NAME = 0;
+
+    /**
+     * Note names with octaves (e.g. C#4, or C4 E4 G4 for a chord, the added bass first).
+     */
+    public static final int NAME_OCTAVE = 1;
+
+    /**
+     * Names, octaves and midi values, as toString (e.g. C#4[61]).
+     */
+    public static final int FULL = 2;
+
+    /**
+     * Roman numerals for chords created from a key (e.g. ii7), names otherwise.
+     */
+    public static final int ROMAN = 3;
+
+    private final int style;
+    private final String noteSeparator;
+    private final String chordSeparator;
+    private final StringBuilder buffer = new StringBuilder(64);
+
+    /**
+     * Initializes the formatter with a style, notes separated by spaces and chords by bars.
+     * @param style NAME, NAME_OCTAVE, FULL or ROMAN.
+     */
+    public TheoryFormatter(int style){
+        this(style, " ", " | ");
+    }
+
+    /**
+     * Initializes the formatter.
+     * @param style NAME, NAME_OCTAVE, FULL or ROMAN.
+     * @param noteSeparator the separator between the notes of a scale or chord (NAME_OCTAVE).
+     * @param chordSeparator the separator between the chords of a progression.
+     */
+    public TheoryFormatter(int style, String noteSeparator, String chordSeparator){
+        if(style < NAME || style > ROMAN){
+            throw new MusicTheoryException("Unknown format style: " + style);
+        }
+        this.style = style;
+        this.noteSeparator = noteSeparator;
+        this.chordSeparator = chordSeparator;
+    }
+
+    /**
+     * @param note the note.
+     * @return the formatted note.
+     */
+    public String format(Note note){
+        return append(new StringBuilder(8), note).toString();
+    }
+
+    /**
+     * @param scale the scale or chord.
+     * @return the formatted scale or chord.
+     */
+    public String format(Scale scale){
+        return append(new StringBuilder(16 * scale.size()), scale).toString();
+    }
+
+    /**
+     * @param key the key.
+     * @return the formatted key.
+     */
+    public String format(Key key){
+        return append(new StringBuilder(32), key).toString();
+    }
+
+    /**
+     * @param progression the progression.
+     * @return the formatted progression.
+     */
+    public String format(Progression progression){
+        return append(new StringBuilder(16 * progression.size()), progression).toString();
+    }
+
+    /**
+     * Appends a note.
+     * @param builder the builder to append to.
+     * @param note the note.
+     * @return the builder.
+     */
+    public StringBuilder append(StringBuilder builder, Note note){
+        switch(style){
+            case NAME_OCTAVE:
+                return builder.append(note.getName()).append(note.getOctave());
+            case FULL:
+                return note.appendTo(builder);
+            default:
+                return builder.append(note.getName());
+        }
+    }
+
+    /**
+     * Appends a scale or a chord.
+     * @param builder the builder to append to.
+     * @param scale the scale or chord.
+     * @return the builder.
+     */
+    public StringBuilder append(StringBuilder builder, Scale scale){
+        switch(style){
+            case NAME_OCTAVE:
+                Note bass = scale instanceof Chord ? ((Chord) scale).getAddedBass() : null;
+                if(bass != null){
+                    append(builder, bass);
+                }
+                for(int i = 0; i < scale.size(); i++){
+                    if(i > 0 || bass != null){
+                        builder.append(noteSeparator);
+                    }
+                    append(builder, scale.notes[i]);
+                }
+                return builder;
+            case FULL:
+                return scale.appendTo(builder);
+            case ROMAN:
+                if(scale instanceof Chord && !((Chord) scale).getTheoryDegree().isEmpty()){
+                    return builder.append(((Chord) scale).getTheoryDegree());
+                }
+                return appendName(builder, scale);
+            default:
+                return appendName(builder, scale);
+        }
+    }
+
+    /**
+     * Appends a key.
+     * @param builder the builder to append to.
+     * @param key the key.
+     * @return the builder.
+     */
+    public StringBuilder append(StringBuilder builder, Key key){
+        switch(style){
+            case NAME_OCTAVE:
+                return append(builder, key.getScale());
+            case FULL:
+                return key.appendTo(builder);
+            default:
+                return builder.append(key.getName()).append(' ').append(key.getType());
+        }
+    }
+
+    /**
+     * Appends the chords of a progression.
+     * @param builder the builder to append to.
+     * @param progression the progression.
+     * @return the builder.
+     */
+    public StringBuilder append(StringBuilder builder, Progression progression){
+        for(int i = 0; i < progression.size(); i++){
+            if(i > 0){
+                builder.append(chordSeparator);
+            }
+            append(builder, progression.chords()[i]);
+        }
+        return builder;
+    }
+
+    /**
+     * Appends a note.
+     * @param out the output to append to.
+     * @param note the note.
+     * @throws IOException if the output fails.
+     */
+    public void append(Appendable out, Note note) throws IOException {
+        if(out instanceof StringBuilder){
+            append((StringBuilder) out, note);
+            return;
+        }
+        buffer.setLength(0);
+        out.append(append(buffer, note));
+    }
+
+    /**
+     * Appends a scale or a chord.
+     * @param out the output to append to.
+     * @param scale the scale or chord.
+     * @throws IOException if the output fails.
+     */
+    public void append(Appendable out, Scale scale) throws IOException {
+        if(out instanceof StringBuilder){
+            append((StringBuilder) out, scale);
+            return;
+        }
+        buffer.setLength(0);
+        out.append(append(buffer, scale));
+    }
+
+    /**
+     * Appends a key.
+     * @param out the output to append to.
+     * @param key the key.
+     * @throws IOException if the output fails.
+     */
+    public void append(Appendable out, Key key) throws IOException {
+        if(out instanceof StringBuilder){
+            append((StringBuilder) out, key);
+            return;
+        }
+        buffer.setLength(0);
+        out.append(append(buffer, key));
+    }
+
+    /**
+     * Appends the chords of a progression, one chord at a time.
+     * @param out the output to append to.
+     * @param progression the progression.
+     * @throws IOException if the output fails.
+     */
+    public void append(Appendable out, Progression progression) throws IOException {
+        if(out instanceof StringBuilder){
+            append((StringBuilder) out, progression);
+            return;
+        }
+        for(int i = 0; i < progression.size(); i++){
+            if(i > 0){
+                out.append(chordSeparator);
+            }
+            append(out, progression.chords()[i]);
+        }
+    }
+
+    /**
+     * @return the style of the formatter.
+     */
+    public int getStyle(){
+        return style;
+    }
+
+    private static StringBuilder appendName(StringBuilder builder, Scale scale){
+        if(scale instanceof Chord){
+            Chord chord = (Chord) scale;
+            builder.append(chord.getName());
+            if(chord.getAddedBass() != null){
+                builder.append('/').append(chord.getAddedBass().getName());
+            }
+            return builder;
+        }
+        builder.append(scale.notes[0].getName());
+        String scaleType = scale.getScaleType();
+        if(scaleType != null){
+            builder.append(' ').append(scaleType);
+        }
+        return builder;
+    }
+}
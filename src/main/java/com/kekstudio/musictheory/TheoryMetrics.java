@@ -0,0 +1,178 @@
+package com.kekstudio.musictheory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters and timers of the theory engine operations, and TheoryCache hit rates.
+ * Disabled unless the system property com.kekstudio.musictheory.metrics is true at startup:
+ * the operations check the ENABLED constant, so disabled metrics are removed by the compiler.
+ * Nested operations are recorded in each (e.g. Key.chord includes the chord construction).
+ * The values can be read here, received with a TheoryMetricsListener, or exposed with TheoryMetricsJmx.
+ * @author Andy671
+ */
+public final class TheoryMetrics {
+
+    /**
+     * The system property enabling the metrics.
+     */
+    public static final String ENABLED_PROPERTY = "com.kekstudio.musictheory.metrics";
+
+    /**
+     * True if the metrics are recorded.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /**
+     * Note.add with an interval symbol.
+     */
+    public static final int NOTE_ADD = 0;
+
+    /**
+     * Scale construction with Note.scale.
+     */
+    public static final int SCALE = 1;
+
+    /**
+     * Chord construction with Note.chord.
+     */
+    public static final int CHORD = 2;
+
+    /**
+     * Chord.setPosition.
+     */
+    public static final int CHORD_POSITION = 3;
+
+    /**
+     * Key.chord, with a degree or a traditional degree.
+     */
+    public static final int KEY_CHORD = 4;
+
+    /**
+     * Roman numeral degree parsing (RomanNumeral.parse, Degree).
+     */
+    public static final int DEGREE_PARSE = 5;
+
+    /**
+     * The number of operations.
+     */
+    public static final int OPERATION_COUNT = 6;
+
+    private static final String[] NAMES = {"NoteAdd", "Scale", "Chord", "ChordPosition", "KeyChord", "DegreeParse"};
+
+    private static final AtomicLongArray counts = new AtomicLongArray(OPERATION_COUNT);
+    private static final AtomicLongArray nanos = new AtomicLongArray(OPERATION_COUNT);
+    private static final AtomicLong cacheHits = new AtomicLong();
+    private static final AtomicLong cacheMisses = new AtomicLong();
+    private static volatile TheoryMetricsListener listener;
+
+    private TheoryMetrics(){
+    }
+
+    /**
+     * Sets the listener receiving every recorded operation.
+     * @param listener the listener, or null.
+     */
+    public static void setListener(TheoryMetricsListener listener){
+        TheoryMetrics.listener = listener;
+    }
+
+    /**
+     * @return the listener, or null.
+     */
+    public static TheoryMetricsListener getListener(){
+        return listener;
+    }
+
+    /**
+     * @param operation the operation (e.g. CHORD).
+     * @return the name of the operation (e.g. Chord).
+     */
+    public static String name(int operation){
+        return NAMES[checkOperation(operation)];
+    }
+
+    /**
+     * @param operation the operation (e.g. CHORD).
+     * @return the number of completed operations.
+     */
+    public static long getCount(int operation){
+        return counts.get(checkOperation(operation));
+    }
+
+    /**
+     * @param operation the operation (e.g. CHORD).
+     * @return the cumulative duration of the completed operations in nanoseconds.
+     */
+    public static long getNanos(int operation){
+        return nanos.get(checkOperation(operation));
+    }
+
+    /**
+     * @return the number of TheoryCache lookups that found a cached entry, in all caches.
+     */
+    public static long getCacheHitCount(){
+        return cacheHits.get();
+    }
+
+    /**
+     * @return the number of TheoryCache lookups that had to generate a new entry, in all caches.
+     */
+    public static long getCacheMissCount(){
+        return cacheMisses.get();
+    }
+
+    /**
+     * @return the ratio of hits to TheoryCache lookups, or 0 if there were no lookups.
+     */
+    public static double getCacheHitRate(){
+        long hitCount = cacheHits.get();
+        long total = hitCount + cacheMisses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Resets all counters and timers.
+     */
+    public static void reset(){
+        for(int operation = 0; operation < OPERATION_COUNT; operation++){
+            counts.set(operation, 0);
+            nanos.set(operation, 0);
+        }
+        cacheHits.set(0);
+        cacheMisses.set(0);
+    }
+
+    /**
+     * Records a completed operation. Callers check ENABLED first.
+     * @param operation the operation.
+     * @param startNanos the System.nanoTime at the start of the operation.
+     */
+    static void record(int operation, long startNanos){
+        long duration = System.nanoTime() - startNanos;
+        counts.incrementAndGet(operation);
+        nanos.addAndGet(operation, duration);
+        TheoryMetricsListener current = listener;
+        if(current != null){
+            current.operationCompleted(operation, duration);
+        }
+    }
+
+    /**
+     * Records a cache lookup. Callers check ENABLED first.
+     */
+    static void recordCacheAccess(boolean hit){
+        (hit ? cacheHits : cacheMisses).incrementAndGet();
+        TheoryMetricsListener current = listener;
+        if(current != null){
+            current.cacheAccessed(hit);
+        }
+    }
+
+    private static int checkOperation(int operation){
+        if(operation < 0 || operation >= OPERATION_COUNT){
+            throw new MusicTheoryException("Unknown operation: " + operation);
+        }
+        return operation;
+    }
+}
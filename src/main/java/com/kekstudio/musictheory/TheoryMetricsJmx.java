@@ -0,0 +1,144 @@
+package com.kekstudio.musictheory;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * JMX view of TheoryMetrics. Not registered automatically, call register at startup.
+ * Kept apart from TheoryMetrics so that platforms without javax.management never load it.
+ * @author Andy671
+ */
+public final class TheoryMetricsJmx implements TheoryMetricsMXBean {
+
+    /**
+     * The object name of the registered bean.
+     */
+    public static final String OBJECT_NAME = "com.kekstudio.musictheory:type=TheoryMetrics";
+
+    private TheoryMetricsJmx(){
+    }
+
+    /**
+     * Registers the bean in the platform MBean server.
+     */
+    public static void register(){
+        register(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Registers the bean, unless it is already registered.
+     * @param server the MBean server.
+     */
+    public static void register(MBeanServer server){
+        try{
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if(!server.isRegistered(name)){
+                server.registerMBean(new TheoryMetricsJmx(), name);
+            }
+        }catch(JMException e){
+            throw new MusicTheoryException("Can not register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Unregisters the bean, if it is registered.
+     * @param server the MBean server.
+     */
+    public static void unregister(MBeanServer server){
+        try{
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if(server.isRegistered(name)){
+                server.unregisterMBean(name);
+            }
+        }catch(JMException e){
+            throw new MusicTheoryException("Can not unregister " + OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public boolean isEnabled(){
+        return TheoryMetrics.ENABLED;
+    }
+
+    @Override
+    public long getNoteAddCount(){
+        return TheoryMetrics.getCount(TheoryMetrics.NOTE_ADD);
+    }
+
+    @Override
+    public long getNoteAddNanos(){
+        return TheoryMetrics.getNanos(TheoryMetrics.NOTE_ADD);
+    }
+
+    @Override
+    public long getScaleCount(){
+        return TheoryMetrics.getCount(TheoryMetrics.SCALE);
+    }
+
+    @Override
+    public long getScaleNanos(){
+        return TheoryMetrics.getNanos(TheoryMetrics.SCALE);
+    }
+
+    @Override
+    public long getChordCount(){
+        return TheoryMetrics.getCount(TheoryMetrics.CHORD);
+    }
+
+    @Override
+    public long getChordNanos(){
+        return TheoryMetrics.getNanos(TheoryMetrics.CHORD);
+    }
+
+    @Override
+    public long getChordPositionCount(){
+        return TheoryMetrics.getCount(TheoryMetrics.CHORD_POSITION);
+    }
+
+    @Override
+    public long getChordPositionNanos(){
+        return TheoryMetrics.getNanos(TheoryMetrics.CHORD_POSITION);
+    }
+
+    @Override
+    public long getKeyChordCount(){
+        return TheoryMetrics.getCount(TheoryMetrics.KEY_CHORD);
+    }
+
+    @Override
+    public long getKeyChordNanos(){
+        return TheoryMetrics.getNanos(TheoryMetrics.KEY_CHORD);
+    }
+
+    @Override
+    public long getDegreeParseCount(){
+        return TheoryMetrics.getCount(TheoryMetrics.DEGREE_PARSE);
+    }
+
+    @Override
+    public long getDegreeParseNanos(){
+        return TheoryMetrics.getNanos(TheoryMetrics.DEGREE_PARSE);
+    }
+
+    @Override
+    public long getCacheHitCount(){
+        return TheoryMetrics.getCacheHitCount();
+    }
+
+    @Override
+    public long getCacheMissCount(){
+        return TheoryMetrics.getCacheMissCount();
+    }
+
+    @Override
+    public double getCacheHitRate(){
+        return TheoryMetrics.getCacheHitRate();
+    }
+
+    @Override
+    public void reset(){
+        TheoryMetrics.reset();
+    }
+}
@@ -0,0 +1,22 @@
+package com.kekstudio.musictheory;
+
+/**
+ * Listener of the operations recorded by TheoryMetrics.
+ * Called on the thread of the operation, so implementations must be thread-safe and fast.
+ * @author Andy671
+ */
+public interface TheoryMetricsListener {
+
+    /**
+     * Called after an operation completed.
+     * @param operation the operation (e.g. TheoryMetrics.CHORD).
+     * @param nanos the duration of the operation in nanoseconds.
+     */
+    void operationCompleted(int operation, long nanos);
+
+    /**
+     * Called after a TheoryCache lookup.
+     * @param hit true if the lookup found a cached entry.
+     */
+    void cacheAccessed(boolean hit);
+}
@@ -0,0 +1,42 @@
+package com.kekstudio.musictheory;
+
+/**
+ * Management interface of TheoryMetrics (see TheoryMetricsJmx).
+ * @author Andy671
+ */
+public interface TheoryMetricsMXBean {
+
+    boolean isEnabled();
+
+    long getNoteAddCount();
+
+    long getNoteAddNanos();
+
+    long getScaleCount();
+
+    long getScaleNanos();
+
+    long getChordCount();
+
+    long getChordNanos();
+
+    long getChordPositionCount();
+
+    long getChordPositionNanos();
+
+    long getKeyChordCount();
+
+    long getKeyChordNanos();
+
+    long getDegreeParseCount();
+
+    long getDegreeParseNanos();
+
+    long getCacheHitCount();
+
+    long getCacheMissCount();
+
+    double getCacheHitRate();
+
+    void reset();
+}
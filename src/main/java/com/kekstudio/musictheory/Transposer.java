@@ -0,0 +1,293 @@
+package com.kekstudio.musictheory;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Bulk transposition of notes, scales and chords.
+ * Works on packed notes (see PackedNote), midi values and arrays of scales or chords,
+ * with the same results as Note.add on every note. The interval is resolved once per call,
+ * and the parallel methods split large arrays over a fork-join pool.
+ * @author Andy671
+ */
+public final class Transposer {
+
+    /**
+     * The number of packed notes or midi values below which the parallel methods run sequentially.
+     */
+    public static final int PARALLEL_THRESHOLD = 8192;
+
+    /**
+     * The number of scales or chords below which the parallel methods run sequentially.
+     */
+    public static final int PARALLEL_SCALE_THRESHOLD = 256;
+
+    private Transposer(){
+    }
+
+    /**
+     * Transposes packed notes.
+     * @param packedNotes the packed notes.
+     * @param intervalSymbol the symbol of the interval to add to every note (e.g. m2).
+     * @return the transposed packed notes.
+     */
+    public static int[] transpose(int[] packedNotes, String intervalSymbol){
+        int[] transposed = new int[packedNotes.length];
+        transpose(packedNotes, intervalSymbol, transposed);
+        return transposed;
+    }
+
+    /**
+     * Transposes packed notes into a target array, which may be the source array.
+     * @param packedNotes the packed notes.
+     * @param intervalSymbol the symbol of the interval to add to every note (e.g. m2).
+     * @param target the array receiving the transposed packed notes.
+     */
+    public static void transpose(int[] packedNotes, String intervalSymbol, int[] target){
+        checkLength(packedNotes.length, target.length);
+        transposePacked(packedNotes, SpellingTable.checkedIntervalId(intervalSymbol), target, 0, packedNotes.length);
+    }
+
+    /**
+     * Transposes packed notes into every interval.
+     * @param packedNotes the packed notes.
+     * @param intervalSymbols the symbols of the intervals (e.g. one per key).
+     * @return the transposed packed notes, one array per interval.
+     */
+    public static int[][] transpose(int[] packedNotes, String[] intervalSymbols){
+        int[][] transposed = new int[intervalSymbols.length][];
+        for(int i = 0; i < intervalSymbols.length; i++){
+            transposed[i] = transpose(packedNotes, intervalSymbols[i]);
+        }
+        return transposed;
+    }
+
+    /**
+     * Transposes midi values.
+     * @param midiValues the midi values.
+     * @param intervalSymbol the symbol of the interval to add to every midi value (e.g. m2).
+     * @return the transposed midi values.
+     */
+    public static int[] transposeMidi(int[] midiValues, String intervalSymbol){
+        int[] transposed = new int[midiValues.length];
+        transposeMidi(midiValues, steps(intervalSymbol), transposed, 0, midiValues.length);
+        return transposed;
+    }
+
+    /**
+     * Transposes scales.
+     * @param scales the scales.
+     * @param intervalSymbol the symbol of the interval to add to every note (e.g. m2).
+     * @return the transposed scales.
+     */
+    public static Scale[] transpose(Scale[] scales, String intervalSymbol){
+        Scale[] transposed = new Scale[scales.length];
+        transposeScales(scales, SpellingTable.checkedIntervalId(intervalSymbol), transposed, 0, scales.length);
+        return transposed;
+    }
+
+    /**
+     * Transposes chords.
+     * @param chords the chords.
+     * @param intervalSymbol the symbol of the interval to add to every note (e.g. m2).
+     * @return the transposed chords.
+     */
+    public static Chord[] transpose(Chord[] chords, String intervalSymbol){
+        Chord[] transposed = new Chord[chords.length];
+        transposeScales(chords, SpellingTable.checkedIntervalId(intervalSymbol), transposed, 0, chords.length);
+        return transposed;
+    }
+
+    /**
+     * Transposes packed notes in parallel on the default pool.
+     * @param packedNotes the packed notes.
+     * @param intervalSymbol the symbol of the interval to add to every note (e.g. m2).
+     * @return the transposed packed notes.
+     */
+    public static int[] transposeParallel(int[] packedNotes, String intervalSymbol){
+        return transposeParallel(packedNotes, intervalSymbol, PoolHolder.POOL);
+    }
+
+    /**
+     * Transposes packed notes in parallel.
+     * @param packedNotes the packed notes.
+     * @param intervalSymbol the symbol of the interval to add to every note (e.g. m2).
+     * @param pool the pool running the transposition.
+     * @return the transposed packed notes.
+     */
+    public static int[] transposeParallel(int[] packedNotes, String intervalSymbol, ForkJoinPool pool){
+        int[] transposed = new int[packedNotes.length];
+        TransposeTask task = new TransposeTask(TransposeTask.PACKED, SpellingTable.checkedIntervalId(intervalSymbol),
+                                               0, packedNotes.length, PARALLEL_THRESHOLD);
+        task.values = packedNotes;
+        task.transposedValues = transposed;
+        run(task, pool);
+        return transposed;
+    }
+
+    /**
+     * Transposes packed notes into every interval in parallel on the default pool.
+     * @param packedNotes the packed notes.
+     * @param intervalSymbols the symbols of the intervals (e.g. one per key).
+     * @return the transposed packed notes, one array per interval.
+     */
+    public static int[][] transposeParallel(int[] packedNotes, String[] intervalSymbols){
+        int[][] transposed = new int[intervalSymbols.length][];
+        for(int i = 0; i < intervalSymbols.length; i++){
+            transposed[i] = transposeParallel(packedNotes, intervalSymbols[i]);
+        }
+        return transposed;
+    }
+
+    /**
+     * Transposes midi values in parallel on the default pool.
+     * @param midiValues the midi values.
+     * @param intervalSymbol the symbol of the interval to add to every midi value (e.g. m2).
+     * @return the transposed midi values.
+     */
+    public static int[] transposeMidiParallel(int[] midiValues, String intervalSymbol){
+        int[] transposed = new int[midiValues.length];
+        TransposeTask task = new TransposeTask(TransposeTask.MIDI, steps(intervalSymbol),
+                                               0, midiValues.length, PARALLEL_THRESHOLD);
+        task.values = midiValues;
+        task.transposedValues = transposed;
+        run(task, PoolHolder.POOL);
+        return transposed;
+    }
+
+    /**
+     * Transposes scales in parallel on the default pool.
+     * @param scales the scales.
+     * @param intervalSymbol the symbol of the interval to add to every note (e.g. m2).
+     * @return the transposed scales.
+     */
+    public static Scale[] transposeParallel(Scale[] scales, String intervalSymbol){
+        Scale[] transposed = new Scale[scales.length];
+        transposeParallel(scales, intervalSymbol, transposed, PoolHolder.POOL);
+        return transposed;
+    }
+
+    /**
+     * Transposes chords in parallel on the default pool.
+     * @param chords the chords.
+     * @param intervalSymbol the symbol of the interval to add to every note (e.g. m2).
+     * @return the transposed chords.
+     */
+    public static Chord[] transposeParallel(Chord[] chords, String intervalSymbol){
+        Chord[] transposed = new Chord[chords.length];
+        transposeParallel(chords, intervalSymbol, transposed, PoolHolder.POOL);
+        return transposed;
+    }
+
+    /**
+     * Transposes scales or chords in parallel into a target array.
+     * @param scales the scales or chords.
+     * @param intervalSymbol the symbol of the interval to add to every note (e.g. m2).
+     * @param target the array receiving the transposed scales, of the same type as the source array.
+     * @param pool the pool running the transposition.
+     */
+    public static void transposeParallel(Scale[] scales, String intervalSymbol, Scale[] target, ForkJoinPool pool){
+        checkLength(scales.length, target.length);
+        TransposeTask task = new TransposeTask(TransposeTask.SCALES, SpellingTable.checkedIntervalId(intervalSymbol),
+                                               0, scales.length, PARALLEL_SCALE_THRESHOLD);
+        task.scales = scales;
+        task.transposedScales = target;
+        run(task, pool);
+    }
+
+    private static void transposePacked(int[] packedNotes, int intervalId, int[] target, int from, int to){
+        for(int i = from; i < to; i++){
+            target[i] = PackedNote.add(packedNotes[i], intervalId);
+        }
+    }
+
+    private static void transposeMidi(int[] midiValues, int steps, int[] target, int from, int to){
+        for(int i = from; i < to; i++){
+            target[i] = midiValues[i] + steps;
+        }
+    }
+
+    private static void transposeScales(Scale[] scales, int intervalId, Scale[] target, int from, int to){
+        for(int i = from; i < to; i++){
+            target[i] = scales[i].transpose(intervalId);
+        }
+    }
+
+    private static int steps(String intervalSymbol){
+        return SpellingTable.interval(SpellingTable.checkedIntervalId(intervalSymbol)).steps;
+    }
+
+    private static void checkLength(int length, int targetLength){
+        if(targetLength < length){
+            throw new MusicTheoryException("Target array too short: " + targetLength + " < " + length);
+        }
+    }
+
+    private static void run(TransposeTask task, ForkJoinPool pool){
+        if(task.to - task.from <= task.threshold){
+            task.compute();
+        }else{
+            pool.invoke(task);
+        }
+    }
+
+    private static final class PoolHolder {
+        static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+
+    private static final class TransposeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        static final int PACKED = 0;
+        static final int MIDI = 1;
+        static final int SCALES = 2;
+
+        private final int kind;
+        private final int interval;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        int[] values;
+        int[] transposedValues;
+        Scale[] scales;
+        Scale[] transposedScales;
+
+        TransposeTask(int kind, int interval, int from, int to, int threshold){
+            this.kind = kind;
+            this.interval = interval;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        private TransposeTask split(int splitFrom, int splitTo){
+            TransposeTask task = new TransposeTask(kind, interval, splitFrom, splitTo, threshold);
+            task.values = values;
+            task.transposedValues = transposedValues;
+            task.scales = scales;
+            task.transposedScales = transposedScales;
+            return task;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= threshold){
+                switch(kind){
+                    case PACKED:
+                        transposePacked(values, interval, transposedValues, from, to);
+                        break;
+                    case MIDI:
+                        transposeMidi(values, interval, transposedValues, from, to);
+                        break;
+                    default:
+                        transposeScales(scales, interval, transposedScales, from, to);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(split(from, middle), split(middle, to));
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.kekstudio.musictheory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Voice leading optimizer.
+ * Chooses the inversion and octave of every chord of a sequence so that the total movement
+ * in semitones between consecutive chords is minimal, with all notes inside a midi range.
+ * The voicings are found by dynamic programming over the (inversion, octave) states of the chords,
+ * in O(chords * states^2). The added bass of a slash chord (see Chord.getAddedBass) is voiced as the
+ * nearest note below the chord tones, inside the range too. Instances are immutable and thread-safe.
+ * @author Andy671
+ */
+public class VoiceLeading {
+
+    /**
+     * The default lowest midi value (C3).
+     */
+    public static final int DEFAULT_LOWEST = 48;
+
+    /**
+     * The default highest midi value (C6).
+     */
+    public static final int DEFAULT_HIGHEST = 84;
+
+    private final int lowest;
+    private final int highest;
+
+    /**
+     * Initializes the optimizer with the default range.
+     */
+    public VoiceLeading(){
+        this(DEFAULT_LOWEST, DEFAULT_HIGHEST);
+    }
+
+    /**
+     * Initializes the optimizer with a range.
+     * @param lowest the lowest allowed midi value.
+     * @param highest the highest allowed midi value.
+     */
+    public VoiceLeading(int lowest, int highest){
+        if(lowest > highest){
+            throw new MusicTheoryException("Wrong range: " + lowest + " > " + highest);
+        }
+        this.lowest = lowest;
+        this.highest = highest;
+    }
+
+    /**
+     * Voices a sequence of chords with minimal movement. Does not modify the chords.
+     * @param chords the chords.
+     * @return the voiced chords, with their notes from the lowest to the highest and the inversion of the
+     *         chord tone in the bass (see Chord.getPosition).
+     */
+    public Chord[] lead(Chord[] chords){
+        if(chords.length == 0){
+            return new Chord[0];
+        }
+
+        // voicings[i][state] holds the sorted midi values of a state, inversions and roots its inversion and root.
+        int[][][] voicings = new int[chords.length][][];
+        int[][] inversions = new int[chords.length][];
+        int[][] roots = new int[chords.length][];
+        int[][] rootOrders = new int[chords.length][];
+        for(int i = 0; i < chords.length; i++){
+            rootOrders[i] = rootOrder(chords[i]);
+            states(chords[i], rootOrders[i], i, voicings, inversions, roots);
+        }
+
+        int[] costs = new int[voicings[0].length];
+        int[][] previousStates = new int[chords.length][];
+        for(int i = 1; i < chords.length; i++){
+            int[][] current = voicings[i];
+            int[][] previous = voicings[i - 1];
+            int[] newCosts = new int[current.length];
+            previousStates[i] = new int[current.length];
+            for(int state = 0; state < current.length; state++){
+                int bestCost = Integer.MAX_VALUE;
+                int bestState = 0;
+                for(int previousState = 0; previousState < previous.length; previousState++){
+                    int cost = costs[previousState] + movement(previous[previousState], current[state]);
+                    if(cost < bestCost){
+                        bestCost = cost;
+                        bestState = previousState;
+                    }
+                }
+                newCosts[state] = bestCost;
+                previousStates[i][state] = bestState;
+            }
+            costs = newCosts;
+        }
+
+        int state = 0;
+        for(int i = 1; i < costs.length; i++){
+            if(costs[i] < costs[state]){
+                state = i;
+            }
+        }
+
+        Chord[] voiced = new Chord[chords.length];
+        for(int i = chords.length - 1; i >= 0; i--){
+            voiced[i] = voice(chords[i], rootOrders[i], inversions[i][state], roots[i][state]);
+            if(i > 0){
+                state = previousStates[i][state];
+            }
+        }
+        return voiced;
+    }
+
+    /**
+     * Voices the chords of a progression with minimal movement.
+     * @param progression the progression.
+     * @return the voiced progression.
+     */
+    public Progression lead(Progression progression){
+        return progression.withChords(lead(progression.chords()));
+    }
+
+    /**
+     * Voices independent chord sequences in parallel, with one thread per available processor.
+     * @param sequences the chord sequences.
+     * @return the voiced sequences, in the same order.
+     */
+    public Chord[][] leadAll(Chord[][] sequences){
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try{
+            return leadAll(sequences, executor);
+        }finally{
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Voices independent chord sequences in parallel.
+     * @param sequences the chord sequences.
+     * @param executor the executor running the sequences.
+     * @return the voiced sequences, in the same order.
+     */
+    public Chord[][] leadAll(Chord[][] sequences, ExecutorService executor){
+        List<Callable<Chord[]>> tasks = new ArrayList<>(sequences.length);
+        for(final Chord[] chords : sequences){
+            tasks.add(new Callable<Chord[]>() {
+                @Override
+                public Chord[] call() {
+                    return lead(chords);
+                }
+            });
+        }
+
+        Chord[][] voiced = new Chord[sequences.length][];
+        try{
+            List<Future<Chord[]>> results = executor.invokeAll(tasks);
+            for(int i = 0; i < voiced.length; i++){
+                voiced[i] = results.get(i).get();
+            }
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new MusicTheoryException("Interrupted while voicing chords", e);
+        }catch(ExecutionException e){
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MusicTheoryException("Failed to voice chords", e.getCause());
+        }
+        return voiced;
+    }
+
+    /**
+     * Computes the movement between two chords: the sum of the distances in semitones
+     * between their voices, from the lowest to the highest. If the chords have a different
+     * number of notes, every note of the bigger chord moves to the nearest note of the other.
+     * @param chord the first chord.
+     * @param otherChord the second chord.
+     * @return the movement in semitones.
+     */
+    public static int getMovement(Scale chord, Scale otherChord){
+        return movement(sortedMidiValues(chord), sortedMidiValues(otherChord));
+    }
+
+    /**
+     * @return the lowest allowed midi value.
+     */
+    public int getLowest(){
+        return lowest;
+    }
+
+    /**
+     * @return the highest allowed midi value.
+     */
+    public int getHighest(){
+        return highest;
+    }
+
+    private static int movement(int[] voicing, int[] otherVoicing){
+        int movement = 0;
+        if(voicing.length == otherVoicing.length){
+            for(int i = 0; i < voicing.length; i++){
+                movement += Math.abs(voicing[i] - otherVoicing[i]);
+            }
+            return movement;
+        }
+
+        int[] bigger = voicing.length > otherVoicing.length ? voicing : otherVoicing;
+        int[] smaller = bigger == voicing ? otherVoicing : voicing;
+        for(int midiValue : bigger){
+            int distance = Integer.MAX_VALUE;
+            for(int otherMidiValue : smaller){
+                distance = Math.min(distance, Math.abs(midiValue - otherMidiValue));
+            }
+            movement += distance;
+        }
+        return movement;
+    }
+
+    // The indexes of the notes of the chord in root position order, found by their pitch class above the root,
+    // so that inversions and voicings (e.g. sorted by lead) are read alike.
+    private static int[] rootOrder(Chord chord){
+        int[] offsets = offsets(chord);
+        int size = chord.size();
+        int rootPitchClass = pitchClass(chord.rootNote().getMidiValue());
+        int[] order = new int[offsets.length];
+        boolean[] found = new boolean[size];
+        for(int tone = 0; tone < order.length; tone++){
+            int tonePitchClass = pitchClass(rootPitchClass + offsets[tone]);
+            order[tone] = -1;
+            for(int i = 0; i < size && order[tone] == -1; i++){
+                if(!found[i] && pitchClass(chord.notes[i].getMidiValue()) == tonePitchClass){
+                    order[tone] = i;
+                    found[i] = true;
+                }
+            }
+            if(order[tone] == -1){
+                throw new MusicTheoryException("Chord " + chord.getName() + " does not have the notes of its type");
+            }
+        }
+        return order;
+    }
+
+    private static int pitchClass(int midiValue){
+        int pitchClass = midiValue % 12;
+        return pitchClass < 0 ? pitchClass + 12 : pitchClass;
+    }
+
+    private static int[] offsets(Chord chord){
+        String[] intervals = chord.getIntervals();
+        int[] offsets = new int[intervals.length + 1];
+        for(int i = 1; i < offsets.length; i++){
+            offsets[i] = Music.Intervals.get(intervals[i - 1]).steps;
+        }
+        return offsets;
+    }
+
+    private static int relativeMidiValue(int[] offsets, int tone, int inversion){
+        return offsets[tone] + (tone < inversion ? 12 : 0);
+    }
+
+    private static int lowestRelativeMidiValue(int[] offsets, int inversion){
+        int low = Integer.MAX_VALUE;
+        for(int tone = 0; tone < offsets.length; tone++){
+            low = Math.min(low, relativeMidiValue(offsets, tone, inversion));
+        }
+        return low;
+    }
+
+    // The midi value of the added bass relative to the root, the nearest below the lowest chord tone.
+    private static int relativeBassMidiValue(int lowestRelativeMidiValue, int bassInterval){
+        return lowestRelativeMidiValue - 1 - ((lowestRelativeMidiValue - 1 - bassInterval) % 12 + 12) % 12;
+    }
+
+    // Fills the sorted midi values, the inversions and the root midi values of every state of a chord.
+    private void states(Chord chord, int[] rootOrder, int index, int[][][] voicings, int[][] inversions, int[][] roots){
+        int[] offsets = offsets(chord);
+        int size = offsets.length;
+        int rootPitchClass = chord.notes[rootOrder[0]].getMidiValue() % 12;
+        Note bass = chord.getAddedBass();
+        int bassInterval = bass != null ? bass.getMidiValue() - chord.notes[rootOrder[0]].getMidiValue() : 0;
+
+        List<int[]> stateVoicings = new ArrayList<>();
+        List<int[]> stateKeys = new ArrayList<>();
+        for(int inversion = 0; inversion < size; inversion++){
+            int low = lowestRelativeMidiValue(offsets, inversion);
+            int high = Integer.MIN_VALUE;
+            for(int tone = 0; tone < size; tone++){
+                high = Math.max(high, relativeMidiValue(offsets, tone, inversion));
+            }
+            int relativeBass = 0;
+            if(bass != null){
+                relativeBass = relativeBassMidiValue(low, bassInterval);
+                low = relativeBass;
+            }
+
+            // The lowest root with the given pitch class that keeps all notes in range, then every octave above.
+            int root = lowest - low;
+            root += ((rootPitchClass - root) % 12 + 12) % 12;
+            for(; root + high <= highest; root += 12){
+                int[] voicing = new int[bass != null ? size + 1 : size];
+                for(int tone = 0; tone < size; tone++){
+                    voicing[tone] = root + relativeMidiValue(offsets, tone, inversion);
+                }
+                if(bass != null){
+                    voicing[size] = root + relativeBass;
+                }
+                Arrays.sort(voicing);
+                stateVoicings.add(voicing);
+                stateKeys.add(new int[]{inversion, root});
+            }
+        }
+
+        if(stateVoicings.isEmpty()){
+            throw new MusicTheoryException("Chord " + chord.getName() + " does not fit in the range "
+                                           + lowest + "-" + highest);
+        }
+        voicings[index] = stateVoicings.toArray(new int[stateVoicings.size()][]);
+        inversions[index] = new int[stateKeys.size()];
+        roots[index] = new int[stateKeys.size()];
+        for(int state = 0; state < stateKeys.size(); state++){
+            inversions[index][state] = stateKeys.get(state)[0];
+            roots[index][state] = stateKeys.get(state)[1];
+        }
+    }
+
+    private static Chord voice(Chord chord, int[] rootOrder, int inversion, int root){
+        int[] offsets = offsets(chord);
+        Note[] notes = new Note[offsets.length];
+        int bassTone = 0;
+        for(int tone = 0; tone < notes.length; tone++){
+            Note note = chord.notes[rootOrder[tone]];
+            notes[tone] = Note.spell(note.getLetterIndex(), note.getAccidentals(),
+                                     root + relativeMidiValue(offsets, tone, inversion));
+            if(notes[tone].getMidiValue() < notes[bassTone].getMidiValue()){
+                bassTone = tone;
+            }
+        }
+        Arrays.sort(notes);
+        Note bass = chord.getAddedBass();
+        Note voicedBass = null;
+        if(bass != null){
+            int bassInterval = bass.getMidiValue() - chord.notes[rootOrder[0]].getMidiValue();
+            int relativeBass = relativeBassMidiValue(lowestRelativeMidiValue(offsets, inversion), bassInterval);
+            voicedBass = Note.spell(bass.getLetterIndex(), bass.getAccidentals(), root + relativeBass);
+        }
+        // The position is that of the chord tone in the bass (see Chord.bassTone).
+        return chord.withNotes(notes, Chord.position(bassTone, notes.length), voicedBass);
+    }
+
+    private static int[] sortedMidiValues(Scale chord){
+        int[] midiValues = new int[chord.size()];
+        for(int i = 0; i < midiValues.length; i++){
+            midiValues[i] = chord.notes[i].getMidiValue();
+        }
+        Arrays.sort(midiValues);
+        return midiValues;
+    }
+}